@@ -0,0 +1,189 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.cactoos.scalar.Solid;
+import org.cactoos.scalar.Unchecked;
+import org.polystat.PolystatEngine;
+import org.polystat.Result;
+import org.polystat.Session;
+
+/**
+ * Analyze EO files of the project, inside the JVM of Maven.
+ *
+ * <p>XMIR and results are kept in {@code target/polystat} between
+ * builds: objects, which didn't change together with their decoratees,
+ * are neither compiled nor analyzed again. All modules of a parallel
+ * build, with {@code -T}, share one {@link PolystatEngine} with its
+ * threads, each module in its own session and its own directory.</p>
+ *
+ * @since 1.0
+ */
+@Mojo(name = "analyze", defaultPhase = LifecyclePhase.VERIFY, threadSafe = true)
+public final class AnalyzeMojo extends AbstractMojo {
+
+    /**
+     * The engine, shared by all modules of the build.
+     */
+    private static final Unchecked<PolystatEngine> ENGINE = new Unchecked<>(
+        new Solid<>(
+            () -> new PolystatEngine(
+                Paths.get(System.getProperty("java.io.tmpdir"), "polystat"),
+                Runtime.getRuntime().availableProcessors()
+            )
+        )
+    );
+
+    /**
+     * The directory with EO files.
+     */
+    @Parameter(
+        property = "polystat.sources",
+        defaultValue = "${project.basedir}/src/main/eo"
+    )
+    private File sources;
+
+    /**
+     * The directory with XMIR and results, kept between builds.
+     */
+    @Parameter(
+        property = "polystat.temp",
+        defaultValue = "${project.build.directory}/polystat"
+    )
+    private File temp;
+
+    /**
+     * Fail the build if errors are found.
+     */
+    @Parameter(
+        alias = "failOnFindings",
+        property = "polystat.failOnFindings",
+        defaultValue = "true"
+    )
+    private boolean fail;
+
+    /**
+     * Skip the analysis.
+     */
+    @Parameter(property = "polystat.skip", defaultValue = "false")
+    private boolean skip;
+
+    /**
+     * Ctor, for Maven.
+     */
+    public AnalyzeMojo() {
+        this(null, null, true);
+    }
+
+    /**
+     * Ctor.
+     * @param src The directory with EO files
+     * @param tmp The directory with XMIR and results
+     * @param failing Fail the build if errors are found
+     */
+    AnalyzeMojo(final File src, final File tmp, final boolean failing) {
+        super();
+        this.sources = src;
+        this.temp = tmp;
+        this.fail = failing;
+    }
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (this.skip) {
+            this.getLog().info("Polystat analysis is skipped");
+        } else if (!this.sources.isDirectory()) {
+            this.getLog().info(
+                String.format("There are no EO files in %s, nothing to analyze", this.sources)
+            );
+        } else {
+            final int found = this.analyze();
+            if (found > 0 && this.fail) {
+                throw new MojoFailureException(
+                    String.format("Polystat found %d error(s) in %s", found, this.sources)
+                );
+            }
+        }
+    }
+
+    /**
+     * Analyze all objects and log their errors and failures.
+     * @return How many errors were found
+     * @throws MojoExecutionException If fails
+     */
+    private int analyze() throws MojoExecutionException {
+        int found = 0;
+        int total = 0;
+        try (Session session = AnalyzeMojo.ENGINE.value().session(
+            this.sources.toPath(), this.temp.toPath()
+        );
+            Stream<Result> results = session.analyze()) {
+            final Iterator<Result> iter = results.iterator();
+            while (iter.hasNext()) {
+                final Result res = iter.next();
+                ++total;
+                final String rule = String.format(
+                    "%s/%s", res.analysis().getSimpleName(), res.ruleId()
+                );
+                if (res.failure().isPresent()) {
+                    this.getLog().warn(
+                        String.format(
+                            "%s failed on %s: %s",
+                            rule, res.locator(), res.failure().get().getMessage()
+                        )
+                    );
+                } else {
+                    for (final String error : res) {
+                        this.getLog().error(
+                            String.format("%s in %s: %s", rule, res.locator(), error)
+                        );
+                        ++found;
+                    }
+                }
+            }
+        } catch (final IOException ex) {
+            throw new MojoExecutionException(
+                String.format("Can't analyze EO files in %s", this.sources), ex
+            );
+        }
+        this.getLog().info(
+            String.format(
+                "Polystat made %d analyses of objects in %s, %d error(s) found",
+                total, this.sources, found
+            )
+        );
+        return found;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat.maven;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.apache.maven.plugin.MojoFailureException;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link AnalyzeMojo}.
+ *
+ * @since 1.0
+ */
+final class AnalyzeMojoTest {
+
+    @Test
+    void failsOnErrors(@TempDir final Path temp) throws Exception {
+        final Path src = AnalyzeMojoTest.sources(temp);
+        Assertions.assertThrows(
+            MojoFailureException.class,
+            () -> new AnalyzeMojo(
+                src.toFile(), temp.resolve("target").toFile(), true
+            ).execute()
+        );
+    }
+
+    @Test
+    void keepsResultsBetweenBuilds(@TempDir final Path temp) throws Exception {
+        final Path src = AnalyzeMojoTest.sources(temp);
+        final Path target = temp.resolve("target");
+        new AnalyzeMojo(src.toFile(), target.toFile(), false).execute();
+        final long size = Files.size(target.resolve("results.bin"));
+        new AnalyzeMojo(src.toFile(), target.toFile(), false).execute();
+        MatcherAssert.assertThat(
+            Files.size(target.resolve("results.bin")),
+            Matchers.equalTo(size)
+        );
+    }
+
+    /**
+     * Write EO files.
+     * @param temp Temp dir
+     * @return The directory with them
+     * @throws Exception If fails
+     */
+    private static Path sources(final Path temp) throws Exception {
+        final Path src = Files.createDirectories(temp.resolve("eo"));
+        Files.write(
+            src.resolve("test.eo"),
+            "[x] > test\n  div. > @\n    42\n    x\n".getBytes(StandardCharsets.UTF_8)
+        );
+        return src;
+    }
+
+}
@@ -0,0 +1,190 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Synthetic corpus of EO files, for benchmarks at scale.
+ *
+ * <p>There are {@code files} files, "obj0.eo", "obj1.eo", and so on,
+ * each with one object of the same name, in the package "corpus".
+ * The objects make chains of {@code chain} decorators: the first one
+ * of a chain has methods "f" and "g", where "g" calls "f", like
+ * "sandbox/mutual_rec.eo"; every next one decorates the previous one.
+ * Every {@code recursion}-th decorator also redefines "f" to call "g",
+ * like "sandbox/derived.eo", which makes a mutual recursion; zero
+ * means none. Besides that, every object has {@code objects} abstract
+ * attributes "a0", "a1", etc., with an integer division each, and
+ * with a chain of {@code depth} nested abstract objects inside.</p>
+ *
+ * <p>Run {@link #main(String...)} to write a corpus to a directory:
+ * {@code java org.polystat.Corpus target/corpus 100 10 2 3 2}.</p>
+ *
+ * @since 1.0
+ */
+public final class Corpus {
+
+    /**
+     * How many files.
+     */
+    private final int files;
+
+    /**
+     * How many abstract objects per file.
+     */
+    private final int objects;
+
+    /**
+     * How deep the chain of nested objects in every one of them is.
+     */
+    private final int depth;
+
+    /**
+     * How long the chains of decorators are.
+     */
+    private final int chain;
+
+    /**
+     * Every which object has mutually recursive methods.
+     */
+    private final int recursion;
+
+    /**
+     * Ctor.
+     * @param files How many files
+     * @param objects How many objects per file
+     * @param depth Depth of nested objects
+     * @param chain Length of decorator chains
+     * @param recursion Every which file has mutual recursion, zero if none
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public Corpus(final int files, final int objects, final int depth,
+        final int chain, final int recursion) {
+        this.files = files;
+        this.objects = objects;
+        this.depth = depth;
+        this.chain = chain;
+        this.recursion = recursion;
+    }
+
+    /**
+     * Write a corpus to the directory.
+     * @param args Directory, files, objects, depth, chain and recursion
+     * @throws IOException If fails
+     */
+    public static void main(final String... args) throws IOException {
+        new Corpus(
+            Integer.parseInt(args[1]),
+            Integer.parseInt(args[2]),
+            Integer.parseInt(args[3]),
+            Integer.parseInt(args[4]),
+            Integer.parseInt(args[5])
+        ).save(Paths.get(args[0]));
+    }
+
+    /**
+     * Write all files to the directory.
+     * @param dir The directory
+     * @return How many objects were written, including nested ones
+     * @throws IOException If fails
+     */
+    public long save(final Path dir) throws IOException {
+        Files.createDirectories(dir);
+        for (int idx = 0; idx < this.files; ++idx) {
+            final String name = String.format("obj%d", idx);
+            Files.write(
+                dir.resolve(String.format("%s.eo", name)),
+                this.source(idx).getBytes(StandardCharsets.UTF_8)
+            );
+        }
+        return (long) this.files * this.total();
+    }
+
+    /**
+     * How many objects one file has, including nested ones and itself,
+     * but not counting methods.
+     * @return Number of objects
+     */
+    public long total() {
+        return 1L + (long) this.objects * (1 + this.depth);
+    }
+
+    /**
+     * EO source of one file.
+     * @param idx Number of the file
+     * @return The source
+     */
+    String source(final int idx) {
+        final StringBuilder src = new StringBuilder(64 * this.objects)
+            .append(String.format("+package corpus%n"));
+        final int pos = idx % this.chain;
+        if (pos > 0) {
+            src.append(String.format("+alias obj%d corpus.obj%1$d%n", idx - 1));
+        }
+        src.append(String.format("%n[] > obj%d%n", idx));
+        if (pos == 0) {
+            src.append(Corpus.method("f", "v > @"))
+                .append(Corpus.method("g", "self.f > @"));
+        } else {
+            src.append(String.format("  obj%d > @%n", idx - 1));
+            if (this.recursion > 0 && pos % this.recursion == 0) {
+                src.append(Corpus.method("f", "self.g > @"));
+            }
+        }
+        for (int obj = 0; obj < this.objects; ++obj) {
+            src.append(
+                String.format("  [x] > a%d%n    div. > @%n      %d%n      x%n", obj, obj + 1)
+            );
+            String indent = "    ";
+            for (int nest = 1; nest <= this.depth; ++nest) {
+                src.append(String.format("%s[y] > n%d%n", indent, nest));
+                indent = String.format("%s  ", indent);
+            }
+            if (this.depth > 0) {
+                src.append(String.format("%sy > @%n", indent));
+            }
+        }
+        return src.toString();
+    }
+
+    /**
+     * EO source of a method with one argument.
+     * @param name Name of the method
+     * @param body Its decoratee, either "v" or a call of another method
+     * @return The source
+     */
+    private static String method(final String name, final String body) {
+        final StringBuilder src = new StringBuilder(64)
+            .append(String.format("  [self v] > %s%n    %s%n", name, body));
+        if (body.startsWith("self.")) {
+            src.append(String.format("      self%n      v%n"));
+        }
+        return src.toString();
+    }
+}
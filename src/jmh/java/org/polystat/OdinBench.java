@@ -0,0 +1,178 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import com.jcabi.xml.XML;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.polystat.odin.interop.java.EOOdinAnalyzer;
+import org.polystat.odin.interop.java.OdinAnalysisResultInterop;
+
+/**
+ * Benchmarks of {@link AnOdin} on the last object of a chain of
+ * decorators from a {@link Corpus}, with compiled XMIR: the hierarchy
+ * of decoratees made by our glue code, the analysis of it inside Odin,
+ * and both together, as {@link AnOdin#errors(org.cactoos.Func, String)}
+ * does them.
+ *
+ * <p>The length of the input of Odin, in characters, is reported as
+ * the "inputChars" secondary metric.</p>
+ *
+ * @since 1.0
+ * @checkstyle VisibilityModifierCheck (500 lines)
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("PMD")
+public class OdinBench {
+
+    /**
+     * How many objects are in the chain of decorators.
+     */
+    @Param({"1", "4", "16"})
+    public int chain;
+
+    /**
+     * How many abstract attributes every object has.
+     */
+    @Param({"1", "10", "50"})
+    public int fanout;
+
+    /**
+     * The program with compiled XMIR.
+     */
+    private Program program;
+
+    /**
+     * Locator of the last object in the chain.
+     */
+    private String locator;
+
+    /**
+     * The last object in the chain.
+     */
+    private XML object;
+
+    /**
+     * The input of Odin.
+     */
+    private String input;
+
+    /**
+     * Write the corpus and compile it.
+     * @throws Exception If fails
+     */
+    @Setup(Level.Trial)
+    public void prepare() throws Exception {
+        final Path sources = Files.createTempDirectory("jmh-sources");
+        new Corpus(this.chain, this.fanout, 1, this.chain, 1).save(sources);
+        this.program = new Program(sources, Files.createTempDirectory("jmh-temp"));
+        for (final String loc : new Locators(sources)) {
+            this.program.apply(loc);
+        }
+        this.locator = String.format("\\Phi.obj%d", this.chain - 1);
+        this.object = this.program.apply(this.locator);
+        this.input = AnOdin.getObjectsHierarchy(this.program, this.object);
+    }
+
+    /**
+     * Make the input of Odin, with all decoratees.
+     * @param size Size of the input
+     * @return The input
+     * @throws Exception If fails
+     */
+    @Benchmark
+    public String hierarchy(final OdinBench.Size size) throws Exception {
+        return AnOdin.getObjectsHierarchy(this.program, this.object);
+    }
+
+    /**
+     * Analyze the input in Odin.
+     * @param size Size of the input
+     * @return Results
+     * @throws Exception If fails
+     */
+    @Benchmark
+    public List<OdinAnalysisResultInterop> odin(final OdinBench.Size size)
+        throws Exception {
+        return new EOOdinAnalyzer.EOOdinXmirAnalyzer().analyze(this.input);
+    }
+
+    /**
+     * Analyze the object, loading it, making the hierarchy and
+     * converting the results.
+     * @param size Size of the input
+     * @return Results
+     * @throws Exception If fails
+     */
+    @Benchmark
+    public Iterable<Result> total(final OdinBench.Size size) throws Exception {
+        return new AnOdin().errors(this.program, this.locator);
+    }
+
+    /**
+     * Size of the input of Odin.
+     *
+     * @since 1.0
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size {
+
+        /**
+         * Length of the input, in characters.
+         */
+        public long inputChars;
+
+        /**
+         * Take the length.
+         * @param bench The benchmark
+         */
+        @TearDown(Level.Iteration)
+        public void measure(final OdinBench bench) {
+            this.inputChars = bench.input.length();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import com.jcabi.xml.XML;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link Program}: cold compilation of an EO file,
+ * a cache hit of compiled XMIR, and resolution of nested locators,
+ * for files of different sizes and nesting depths.
+ *
+ * <p>The file "test.eo" has {@code width} top-level attributes in its
+ * object and a chain of {@code depth} nested abstract objects
+ * named "n1", "n2", and so on.</p>
+ *
+ * @since 1.0
+ * @checkstyle VisibilityModifierCheck (500 lines)
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("PMD")
+public class ProgramBench {
+
+    /**
+     * How deep the chain of nested objects is.
+     */
+    @Param({"1", "4", "16"})
+    public int depth;
+
+    /**
+     * How many attributes the object has, besides the chain.
+     */
+    @Param({"10", "100"})
+    public int width;
+
+    /**
+     * Directory with sources.
+     */
+    private Path sources;
+
+    /**
+     * Directory with compiled XMIR.
+     */
+    private Path temp;
+
+    /**
+     * The program with warm cache.
+     */
+    private Program program;
+
+    /**
+     * Locator of the deepest object.
+     */
+    private String nested;
+
+    /**
+     * Write the sources and compile them once.
+     * @throws Exception If fails
+     */
+    @Setup(Level.Trial)
+    public void prepare() throws Exception {
+        this.sources = Files.createTempDirectory("jmh-sources");
+        this.temp = Files.createTempDirectory("jmh-temp");
+        Files.write(
+            this.sources.resolve("test.eo"),
+            ProgramBench.source(this.depth, this.width)
+                .getBytes(StandardCharsets.UTF_8)
+        );
+        final StringBuilder locator = new StringBuilder("\\Phi.test");
+        for (int idx = 1; idx <= this.depth; ++idx) {
+            locator.append(".n").append(idx);
+        }
+        this.nested = locator.toString();
+        this.program = new Program(this.sources, this.temp);
+        this.program.apply("\\Phi.test");
+    }
+
+    /**
+     * Remove compiled XMIR, before every cold compilation.
+     * @throws IOException If fails
+     */
+    @Setup(Level.Invocation)
+    public void expire() throws IOException {
+        Files.deleteIfExists(this.temp.resolve("cold").resolve("test.xml"));
+    }
+
+    /**
+     * Compile the file with {@code Syntax} and {@link Stylesheets}
+     * and load it.
+     * @return The object
+     * @throws Exception If fails
+     */
+    @Benchmark
+    public XML cold() throws Exception {
+        return new Program(this.sources, this.temp.resolve("cold"))
+            .apply("\\Phi.test");
+    }
+
+    /**
+     * Load the object, already compiled.
+     * @return The object
+     * @throws Exception If fails
+     */
+    @Benchmark
+    public XML warm() throws Exception {
+        return this.program.apply("\\Phi.test");
+    }
+
+    /**
+     * Load the deepest nested object, already compiled.
+     * @return The object
+     * @throws Exception If fails
+     */
+    @Benchmark
+    public XML nested() throws Exception {
+        return this.program.apply(this.nested);
+    }
+
+    /**
+     * EO source of the object "test".
+     * @param depth Depth of the chain of nested objects
+     * @param width Number of other attributes
+     * @return The source
+     */
+    static String source(final int depth, final int width) {
+        final StringBuilder src = new StringBuilder("[x] > test\n");
+        for (int idx = 0; idx < width; ++idx) {
+            src.append(String.format("  div. > a%d%n    x%n    %d%n", idx, idx + 1));
+        }
+        String indent = "  ";
+        for (int idx = 1; idx <= depth; ++idx) {
+            src.append(String.format("%s[y] > n%d%n", indent, idx));
+            indent = String.format("%s  ", indent);
+        }
+        src.append(String.format("%sy > @%n", indent));
+        return src.toString();
+    }
+}
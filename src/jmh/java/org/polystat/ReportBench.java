@@ -0,0 +1,284 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import com.jcabi.manifests.Manifests;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import org.cactoos.list.ListOf;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the reports, {@link AsSarif}, {@link AsConsole} and
+ * {@link AsNdjson}, fed with synthetic streams of results.
+ *
+ * <p>Every hundredth result is a failure, the others have one to three
+ * messages of 40 to 400 characters, similar to the ones of FaR and Odin.
+ * The results are generated on the fly, so that only the report itself
+ * takes memory. Run with "-prof gc" to see the allocation rate; the
+ * peak usage of the heap is reported as the "peak" secondary metric.</p>
+ *
+ * @since 1.0
+ * @checkstyle VisibilityModifierCheck (500 lines)
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("PMD")
+public class ReportBench {
+
+    /**
+     * How many results.
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    /**
+     * Results.
+     */
+    private Iterable<Result> results;
+
+    /**
+     * Directory for spilled results.
+     */
+    private Path temp;
+
+    /**
+     * Make the results.
+     * @throws IOException If fails
+     */
+    @Setup(Level.Trial)
+    public void prepare() throws IOException {
+        Manifests.DEFAULT.put("Polystat-Version", "1.0-SNAPSHOT");
+        this.results = new ReportBench.Synthetic(this.size);
+        this.temp = Files.createTempDirectory("jmh-reports");
+    }
+
+    /**
+     * SARIF of the results, generated on the fly.
+     * @param peak Peak memory
+     * @throws IOException If fails
+     */
+    @Benchmark
+    public void sarif(final ReportBench.Peak peak) throws IOException {
+        new AsSarif(this.results).print(new ReportBench.Blackhole());
+    }
+
+    /**
+     * SARIF of the results, collected into a {@link Store} first,
+     * as the command line tool does.
+     * @param peak Peak memory
+     * @throws IOException If fails
+     */
+    @Benchmark
+    public void sarifStored(final ReportBench.Peak peak) throws IOException {
+        try (Store store = new Store(
+            Files.createTempFile(this.temp, "results", ".bin"), 10_000
+        )) {
+            new AsSarif(store.addAll(this.results)).print(new ReportBench.Blackhole());
+        }
+    }
+
+    /**
+     * Console report of the results.
+     * @param peak Peak memory
+     * @throws IOException If fails
+     */
+    @Benchmark
+    public void console(final ReportBench.Peak peak) throws IOException {
+        new AsConsole(this.results).print(new ReportBench.Blackhole());
+    }
+
+    /**
+     * NDJSON report of the results.
+     * @param peak Peak memory
+     * @throws IOException If fails
+     */
+    @Benchmark
+    public void ndjson(final ReportBench.Peak peak) throws IOException {
+        new AsNdjson(this.results).print(new ReportBench.Blackhole());
+    }
+
+    /**
+     * Peak usage of the heap during an iteration.
+     *
+     * @since 1.0
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Peak {
+
+        /**
+         * Peak usage of the heap, in megabytes.
+         */
+        public long peak;
+
+        /**
+         * Reset peaks of the heap pools.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            System.gc();
+            for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    pool.resetPeakUsage();
+                }
+            }
+        }
+
+        /**
+         * Sum up peaks of the heap pools.
+         */
+        @TearDown(Level.Iteration)
+        public void measure() {
+            long bytes = 0L;
+            for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    bytes += pool.getPeakUsage().getUsed();
+                }
+            }
+            this.peak = bytes >> 20;
+        }
+    }
+
+    /**
+     * Results, made on the fly, the same ones in every iteration.
+     *
+     * @since 1.0
+     */
+    static final class Synthetic implements Iterable<Result> {
+
+        /**
+         * Messages to pick from.
+         */
+        private static final String[] MESSAGES = {
+            "\\perp at {a=\\any, b=0}",
+            "\\perp at {a=1, b=\\any} when div. is called with 0 as the divisor",
+            String.format(
+                "Method g was called from the object h in %s. It is mutually recursive with f",
+                "\\Phi.test.derived"
+            ),
+            new String(new char[400]).replace('\0', 'x'),
+        };
+
+        /**
+         * How many.
+         */
+        private final int size;
+
+        /**
+         * Ctor.
+         * @param size How many results
+         */
+        Synthetic(final int size) {
+            this.size = size;
+        }
+
+        @Override
+        public Iterator<Result> iterator() {
+            return new Iterator<Result>() {
+                private int idx;
+
+                @Override
+                public boolean hasNext() {
+                    return this.idx < Synthetic.this.size;
+                }
+
+                @Override
+                public Result next() {
+                    if (!this.hasNext()) {
+                        throw new NoSuchElementException("No more results");
+                    }
+                    final int num = this.idx;
+                    this.idx += 1;
+                    final Result res;
+                    final String locator = String.format("\\Phi.obj%d", num % 997);
+                    if (num % 100 == 99) {
+                        res = new Result.Failed(
+                            AnOdin.class,
+                            new IllegalStateException("Could not resolve the object"),
+                            "Unjustified Assumption",
+                            locator
+                        );
+                    } else {
+                        final String[] all = Synthetic.MESSAGES;
+                        final ListOf<String> msgs = new ListOf<>(
+                            all[num % all.length],
+                            String.format("%s #%d", all[(num + 1) % all.length], num)
+                        );
+                        res = new Result.Completed(AnFaR.class, msgs, "DIV0", locator);
+                    }
+                    return res;
+                }
+            };
+        }
+    }
+
+    /**
+     * Writer, which forgets everything.
+     *
+     * @since 1.0
+     */
+    private static final class Blackhole extends Writer {
+        @Override
+        public void write(final char[] cbuf, final int off, final int len) {
+            // nothing
+        }
+
+        @Override
+        public void flush() {
+            // nothing
+        }
+
+        @Override
+        public void close() {
+            // nothing
+        }
+    }
+}
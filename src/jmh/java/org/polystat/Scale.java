@@ -0,0 +1,272 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import com.jcabi.log.Logger;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.json.Json;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * End-to-end benchmark of the command line tool on a {@link Corpus},
+ * which fails when the results are worse than the stored baseline.
+ *
+ * <p>The tool, as a JAR with dependencies, runs twice in a separate
+ * JVM, with SARIF output and metrics: "cold", with an empty temp directory, and "warm", with
+ * XMIR already compiled by the first run. For every run it records
+ * objects per second, including nested ones, peak resident set size
+ * of the process and cache hit rate, which is the share of files
+ * whose XMIR was not compiled again. The results are saved to the
+ * report file. If the baseline file exists, any throughput lower or
+ * memory higher than in the baseline by more than the threshold, or
+ * a hit rate lower by more than the threshold, fails the benchmark;
+ * if it doesn't exist, the results are saved there.</p>
+ *
+ * <p>Arguments: the JAR, baseline file, threshold (0.25 means 25%),
+ * report file, work directory, and then files, objects, depth, chain and recursion
+ * of the corpus.</p>
+ *
+ * @since 1.0
+ */
+public final class Scale {
+
+    /**
+     * Names of the runs.
+     */
+    private static final List<String> RUNS = Arrays.asList("cold", "warm");
+
+    /**
+     * Ctor.
+     */
+    private Scale() {
+        // utility class
+    }
+
+    /**
+     * Run the benchmark.
+     * @param args Arguments
+     * @throws Exception If fails
+     */
+    public static void main(final String... args) throws Exception {
+        final Path jar = Paths.get(args[0]);
+        final Path baseline = Paths.get(args[1]);
+        final double threshold = Double.parseDouble(args[2]);
+        final Path report = Paths.get(args[3]);
+        final Path work = Paths.get(args[4]);
+        final int files = Integer.parseInt(args[5]);
+        final Corpus corpus = new Corpus(
+            files,
+            Integer.parseInt(args[6]),
+            Integer.parseInt(args[7]),
+            Integer.parseInt(args[8]),
+            Integer.parseInt(args[9])
+        );
+        final Path sources = work.resolve("corpus");
+        final long objects = corpus.save(sources);
+        final Map<String, JsonObject> results = new LinkedHashMap<>(0);
+        for (final String run : Scale.RUNS) {
+            results.put(run, Scale.run(jar, run, work, objects, files));
+            Logger.info(Scale.class, "%s: %s", run, results.get(run));
+        }
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        Scale.save(report, results);
+        if (Files.exists(baseline)) {
+            final List<String> worse = Scale.compare(
+                Scale.load(baseline), results, threshold
+            );
+            if (!worse.isEmpty()) {
+                throw new IllegalStateException(
+                    String.format(
+                        "Worse than the baseline %s by more than %.0f%%: %s",
+                        baseline, threshold * 100, String.join("; ", worse)
+                    )
+                );
+            }
+            Logger.info(Scale.class, "No regressions against %s", baseline);
+        } else {
+            Scale.save(baseline, results);
+            Logger.info(Scale.class, "The baseline saved to %s", baseline);
+        }
+    }
+
+    /**
+     * Run the tool once, in a separate JVM.
+     * @param jar The JAR with dependencies
+     * @param name Name of the run
+     * @param work Work directory, with the corpus
+     * @param objects How many objects the corpus has
+     * @param files How many files the corpus has
+     * @return Results of the run
+     * @throws Exception If fails
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private static JsonObject run(final Path jar, final String name,
+        final Path work, final long objects, final int files) throws Exception {
+        final Path metrics = work.resolve(String.format("%s.json", name));
+        final Path log = work.resolve(String.format("%s.log", name));
+        final List<String> cmd = new LinkedList<>();
+        cmd.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        cmd.add("-jar");
+        cmd.add(jar.toString());
+        cmd.addAll(
+            Arrays.asList(
+                "--files", work.resolve("corpus").toString(),
+                "--tmp", work.resolve("temp").toString(),
+                "--sarif",
+                "--output", work.resolve(String.format("%s.sarif", name)).toString(),
+                "--metrics", metrics.toString()
+            )
+        );
+        final long start = System.nanoTime();
+        final Process proc = new ProcessBuilder(cmd)
+            .redirectErrorStream(true)
+            .redirectOutput(log.toFile())
+            .start();
+        if (proc.waitFor() != 0 || !Files.exists(metrics)) {
+            throw new IllegalStateException(
+                String.format("The %s run failed, see %s", name, log)
+            );
+        }
+        final double seconds = (double) (System.nanoTime() - start)
+            / TimeUnit.SECONDS.toNanos(1L);
+        final JsonObject saved = Scale.load(metrics);
+        long parsed = 0L;
+        for (final JsonValue phase : saved.getJsonArray("phases")) {
+            final JsonObject obj = (JsonObject) phase;
+            if ("parse".equals(obj.getString("phase"))) {
+                parsed = obj.getJsonNumber("count").longValue();
+            }
+        }
+        return Json.createObjectBuilder()
+            .add("objectsPerSecond", objects / seconds)
+            .add("peakRssBytes", saved.getJsonNumber("peakRssBytes").longValue())
+            .add("cacheHitRate", 1.0 - (double) parsed / files)
+            .build();
+    }
+
+    /**
+     * Compare results with the baseline.
+     * @param base The baseline
+     * @param results Results
+     * @param threshold Threshold
+     * @return Descriptions of regressions, if any
+     */
+    private static List<String> compare(final JsonObject base,
+        final Map<String, JsonObject> results, final double threshold) {
+        final List<String> worse = new LinkedList<>();
+        for (final Map.Entry<String, JsonObject> ent : results.entrySet()) {
+            if (!base.containsKey(ent.getKey())) {
+                continue;
+            }
+            final JsonObject before = base.getJsonObject(ent.getKey());
+            final JsonObject now = ent.getValue();
+            final double speed = Scale.number(now, "objectsPerSecond");
+            if (speed < Scale.number(before, "objectsPerSecond") * (1.0 - threshold)) {
+                worse.add(
+                    String.format(
+                        "%s objects/sec %.2f instead of %.2f", ent.getKey(), speed,
+                        Scale.number(before, "objectsPerSecond")
+                    )
+                );
+            }
+            final double rss = Scale.number(now, "peakRssBytes");
+            if (rss > Scale.number(before, "peakRssBytes") * (1.0 + threshold)) {
+                worse.add(
+                    String.format(
+                        "%s peak RSS %.0f bytes instead of %.0f", ent.getKey(), rss,
+                        Scale.number(before, "peakRssBytes")
+                    )
+                );
+            }
+            final double hits = Scale.number(now, "cacheHitRate");
+            if (hits < Scale.number(before, "cacheHitRate") - threshold) {
+                worse.add(
+                    String.format(
+                        "%s cache hit rate %.2f instead of %.2f", ent.getKey(), hits,
+                        Scale.number(before, "cacheHitRate")
+                    )
+                );
+            }
+        }
+        return worse;
+    }
+
+    /**
+     * Number from JSON object.
+     * @param obj The object
+     * @param key The key
+     * @return The number
+     */
+    private static double number(final JsonObject obj, final String key) {
+        final JsonNumber num = obj.getJsonNumber(key);
+        return num.doubleValue();
+    }
+
+    /**
+     * Load JSON object from the file.
+     * @param file The file
+     * @return The object
+     * @throws IOException If fails
+     */
+    private static JsonObject load(final Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            return Json.createReader(input).readObject();
+        }
+    }
+
+    /**
+     * Save results to the file.
+     * @param file The file
+     * @param results Results by runs
+     * @throws IOException If fails
+     */
+    private static void save(final Path file, final Map<String, JsonObject> results)
+        throws IOException {
+        try (Writer out = Files.newBufferedWriter(file)) {
+            final JsonGenerator json = Json.createGeneratorFactory(
+                Collections.singletonMap(JsonGenerator.PRETTY_PRINTING, true)
+            ).createGenerator(out);
+            json.writeStartObject();
+            for (final Map.Entry<String, JsonObject> ent : results.entrySet()) {
+                json.write(ent.getKey(), ent.getValue());
+            }
+            json.writeEnd().flush();
+        }
+    }
+}
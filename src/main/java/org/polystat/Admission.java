@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.util.concurrent.Semaphore;
+import org.cactoos.Scalar;
+
+/**
+ * Admission of tasks by their estimated memory, within a budget
+ * of the heap.
+ *
+ * <p>A task waits until the memory of all tasks running together,
+ * with its own, fits the budget. A task, which is bigger than the
+ * whole budget, runs alone. Waiting tasks are admitted in the order
+ * they came, so big ones are not starved by small ones.</p>
+ *
+ * @since 1.0
+ */
+final class Admission {
+
+    /**
+     * Bytes in one permit.
+     */
+    private static final long KILO = 1024L;
+
+    /**
+     * The budget, in kilobytes.
+     */
+    private final int budget;
+
+    /**
+     * Kilobytes, which are free.
+     */
+    private final Semaphore free;
+
+    /**
+     * Ctor.
+     * @param fraction Fraction of the maximum heap of this JVM
+     */
+    Admission(final double fraction) {
+        this(Runtime.getRuntime().maxMemory(), fraction);
+    }
+
+    /**
+     * Ctor.
+     * @param heap The heap, in bytes
+     * @param fraction Fraction of the heap, which is the budget
+     */
+    Admission(final long heap, final double fraction) {
+        if (fraction <= 0.0 || fraction > 1.0) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "The fraction of the heap must be above 0 and up to 1, while %s given",
+                    fraction
+                )
+            );
+        }
+        this.budget = (int) Math.max(
+            1L, Math.min(Integer.MAX_VALUE, (long) (heap * fraction) / Admission.KILO)
+        );
+        this.free = new Semaphore(this.budget, true);
+    }
+
+    /**
+     * Run the task, when its memory fits the budget.
+     * @param bytes Estimated memory of the task
+     * @param task The task
+     * @param <T> Type of the result
+     * @return The result
+     * @throws Exception If the task fails or waiting is interrupted
+     */
+    public <T> T admit(final long bytes, final Scalar<T> task) throws Exception {
+        final int need = (int) Math.max(
+            1L, Math.min(this.budget, bytes / Admission.KILO)
+        );
+        this.free.acquire(need);
+        try {
+            return task.value();
+        } finally {
+            this.free.release(need);
+        }
+    }
+}
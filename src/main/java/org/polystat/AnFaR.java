@@ -48,10 +48,12 @@ public final class AnFaR implements Analysis {
         Result result;
         try {
             final Iterable<String> errors = new FaR().errors(xmir, locator);
-            result = new Result.Completed(AnFaR.class, errors, AnFaR.RULE_ID);
+            result = new Result.Completed(
+                AnFaR.class, errors, AnFaR.RULE_ID, locator
+            );
         // @checkstyle IllegalCatchCheck (1 line)
         } catch (final Exception ex) {
-            result = new Result.Failed(AnFaR.class, ex, AnFaR.RULE_ID);
+            result = new Result.Failed(AnFaR.class, ex, AnFaR.RULE_ID, locator);
         }
         return new ListOf<Result>(result);
     }
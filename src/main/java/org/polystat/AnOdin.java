@@ -24,7 +24,9 @@
 package org.polystat;
 
 import com.jcabi.xml.XML;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.cactoos.Func;
 import org.cactoos.list.ListOf;
@@ -39,15 +41,42 @@ import org.polystat.odin.interop.java.OdinAnalysisResultInterop;
  */
 public final class AnOdin implements Analysis {
 
+    /**
+     * Probe of the phases "hierarchy" and "odin".
+     */
+    private final Probe probe;
+
+    /**
+     * Ctor.
+     */
+    public AnOdin() {
+        this(new Probe.Silent());
+    }
+
+    /**
+     * Ctor.
+     * @param probe Probe of the phases "hierarchy" and "odin"
+     */
+    public AnOdin(final Probe probe) {
+        this.probe = probe;
+    }
+
     @Override
     @SuppressWarnings("PMD.AvoidCatchingGenericException")
     public Iterable<Result> errors(final Func<String, XML> xmir,
         final String locator) throws Exception {
         final XML xml = xmir.apply(locator);
-        final String str = getObjectsHierarchy(xmir, xml);
-        final Iterable<Result> result = new EOOdinAnalyzer.EOOdinXmirAnalyzer()
-            .analyze(str).stream()
-            .map(res -> extractResults(res))
+        final String str;
+        try (Probe.Span span = this.probe.start("hierarchy", locator)) {
+            str = getObjectsHierarchy(xmir, xml);
+            span.with("inputChars", str.length());
+        }
+        final List<OdinAnalysisResultInterop> found;
+        try (Probe.Span span = this.probe.start("odin", locator)) {
+            found = new EOOdinAnalyzer.EOOdinXmirAnalyzer().analyze(str);
+        }
+        final Iterable<Result> result = found.stream()
+            .map(res -> extractResults(res, locator))
             .collect(Collectors.toList());
         return result;
     }
@@ -55,27 +84,32 @@ public final class AnOdin implements Analysis {
     /**
      * Converts OdinAnalysisResultInterop to org.polystat.Result.
      * @param res Odin result object
+     * @param locator Locator of the analysed object
      * @return Polystat result object
      */
-    private static Result extractResults(final OdinAnalysisResultInterop res) {
+    private static Result extractResults(final OdinAnalysisResultInterop res,
+        final String locator) {
         final Result result;
         if (res.analyzerFailure().isPresent()) {
             result = new Result.Failed(
                 AnOdin.class,
                 res.analyzerFailure().get(),
-                res.ruleId()
+                res.ruleId(),
+                locator
             );
         } else if (res.detectedDefect().isPresent()) {
             result = new Result.Completed(
                 AnOdin.class,
                 new ListOf<>(res.detectedDefect().get()),
-                res.ruleId()
+                res.ruleId(),
+                locator
             );
         } else {
             result = new Result.Completed(
                 AnOdin.class,
                 new ListOf<>(),
-                res.ruleId()
+                res.ruleId(),
+                locator
             );
         }
         return result;
@@ -83,18 +117,20 @@ public final class AnOdin implements Analysis {
 
     /**
      * Resolves object hierarchy for the give object represented in XMIR and
-     * returns a well-formed XML.
+     * returns a well-formed XML, with every object only once, even if
+     * the chain of decoratees comes back to the object itself.
      * @param xmir Function to retrieve XMIR by locator
      * @param xml XMIR of object to get hierarchy for
      * @return Well-formed XML containing objects that form a hierarchy in XMIR
      * @throws Exception on errors
      */
-    private static String getObjectsHierarchy(final Func<String, XML> xmir,
+    static String getObjectsHierarchy(final Func<String, XML> xmir,
         final XML xml) throws Exception {
+        final Set<String> seen = new HashSet<>(xml.xpath("@name"));
         return String.format(
             "%s%n%s%n%s",
             "<objects>",
-            resolveObjectHierarchy(xmir, xml),
+            resolveObjectHierarchy(xmir, xml, seen),
             "</objects>"
         );
     }
@@ -104,21 +140,26 @@ public final class AnOdin implements Analysis {
      * represented as XMIR.
      * @param xmir Function to retrieve XMIR by locator
      * @param xml XMIR that represents an object
+     * @param seen Names of decoratees already resolved, to stop on cycles
      * @return Concatenated XML string containing the whole object hierarchy
      * @throws Exception on errors
      */
     private static String resolveObjectHierarchy(final Func<String, XML> xmir,
-        final XML xml) throws Exception {
+        final XML xml, final Set<String> seen) throws Exception {
         String result = xml.toString();
         for (final String decoratee : xml.xpath("o[@name='@']/@base")) {
             if (decoratee.charAt(0) != '.') {
                 final List<String> split = new ListOf<>(decoratee.split("\\."));
                 final String name = split.get(split.size() - 1);
-                result = String.format(
-                    "%s%s",
-                    xmir.apply(String.format("\\Phi.%s", name)),
-                    result
-                );
+                if (seen.add(name)) {
+                    result = String.format(
+                        "%s%s",
+                        resolveObjectHierarchy(
+                            xmir, xmir.apply(String.format("\\Phi.%s", name)), seen
+                        ),
+                        result
+                    );
+                }
             }
         }
         return result;
@@ -24,8 +24,11 @@
 package org.polystat;
 
 import com.jcabi.log.Logger;
-import java.util.LinkedList;
-import java.util.List;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Collections;
 import java.util.function.Supplier;
 
 /**
@@ -33,42 +36,76 @@ import java.util.function.Supplier;
  *
  * @since 1.0
  */
-final class AsConsole implements Supplier<String> {
+final class AsConsole implements Supplier<String>, Report {
 
     /**
      * Errors.
      */
     private final Iterable<Result> errors;
 
+    /**
+     * Locators of objects, which were not analyzed.
+     */
+    private final Iterable<String> skipped;
+
     /**
      * Ctor.
      * @param errs Errors
      */
     AsConsole(final Iterable<Result> errs) {
+        this(errs, Collections.emptyList());
+    }
+
+    /**
+     * Ctor.
+     * @param errs Errors
+     * @param skip Locators of objects, which were not analyzed
+     */
+    AsConsole(final Iterable<Result> errs, final Iterable<String> skip) {
         this.errors = errs;
+        this.skipped = skip;
     }
 
     @Override
     public String get() {
-        final List<String> lines = new LinkedList<>();
+        final StringWriter out = new StringWriter();
+        try {
+            this.print(out);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toString();
+    }
+
+    @Override
+    public void print(final Writer out) throws IOException {
+        boolean empty = true;
         for (final Result ent : this.errors) {
             if (ent.failure().isPresent()) {
                 Logger.warn(Polystat.class, "%[exception]s", ent.failure().get());
             } else {
                 for (final String error : ent) {
-                    lines.add(
+                    if (!empty) {
+                        out.write('\n');
+                    }
+                    out.write(
                         String.format(
                             "RESULT BY %s:\n\t%s",
                             ent.analysis().getSimpleName(),
                             error.replace("\n", "\n\t")
                         )
                     );
+                    empty = false;
                 }
             }
         }
-        if (lines.isEmpty()) {
-            lines.add("No errors found by Polystat analyzers");
+        if (empty) {
+            out.write("No errors found by Polystat analyzers");
+        }
+        final String skip = String.join(", ", this.skipped);
+        if (!skip.isEmpty()) {
+            out.write(String.format("\nSkipped, not analyzed: %s", skip));
         }
-        return String.join("\n", lines);
+        out.flush();
     }
 }
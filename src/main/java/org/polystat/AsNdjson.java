@@ -0,0 +1,161 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.function.Supplier;
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * Turn list of errors into newline-delimited JSON, one record
+ * per finding or failure, and one per object that was not analyzed,
+ * in the end.
+ *
+ * <p>Every record is flushed as soon as it is printed, so when the list
+ * of errors is lazy, consumers start reading the records while
+ * the analysis is still running.</p>
+ * @see <a href="http://ndjson.org/">NDJSON</a>
+ * @since 1.0
+ */
+final class AsNdjson implements Supplier<String>, Report {
+
+    /**
+     * Record property "message".
+     */
+    private static final String PROPERTY_MESSAGE = "message";
+
+    /**
+     * Errors.
+     */
+    private final Iterable<Result> errors;
+
+    /**
+     * Locators of objects, which were not analyzed.
+     */
+    private final Iterable<String> skipped;
+
+    /**
+     * Ctor.
+     * @param errs Errors
+     */
+    AsNdjson(final Iterable<Result> errs) {
+        this(errs, Collections.emptyList());
+    }
+
+    /**
+     * Ctor.
+     * @param errs Errors
+     * @param skip Locators of objects, which were not analyzed
+     */
+    AsNdjson(final Iterable<Result> errs, final Iterable<String> skip) {
+        this.errors = errs;
+        this.skipped = skip;
+    }
+
+    @Override
+    public String get() {
+        final StringWriter out = new StringWriter();
+        try {
+            this.print(out);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toString();
+    }
+
+    @Override
+    public void print(final Writer out) throws IOException {
+        for (final Result res : this.errors) {
+            if (res.failure().isPresent()) {
+                final Throwable exc = res.failure().get();
+                final JsonGenerator json = AsNdjson.record(out, res, "failure");
+                if (exc.getMessage() == null) {
+                    json.writeNull(AsNdjson.PROPERTY_MESSAGE);
+                } else {
+                    json.write(AsNdjson.PROPERTY_MESSAGE, exc.getMessage());
+                }
+                json.write("exception", exc.getClass().getName());
+                AsNdjson.close(out, json, res);
+            } else {
+                for (final String error : res) {
+                    AsNdjson.close(
+                        out,
+                        AsNdjson.record(out, res, "finding")
+                            .write(AsNdjson.PROPERTY_MESSAGE, error),
+                        res
+                    );
+                }
+            }
+        }
+        for (final String locator : this.skipped) {
+            Json.createGenerator(out)
+                .writeStartObject()
+                .write("kind", "skipped")
+                .write("locator", locator)
+                .writeEnd()
+                .flush();
+            out.write('\n');
+            out.flush();
+        }
+    }
+
+    /**
+     * Start a record with the properties every record has.
+     * @param out Output
+     * @param res Polystat result
+     * @param kind Kind of the record
+     * @return JSON generator inside the record object
+     */
+    private static JsonGenerator record(final Writer out, final Result res,
+        final String kind) {
+        return Json.createGenerator(out)
+            .writeStartObject()
+            .write("kind", kind)
+            .write("analyzer", res.analysis().getSimpleName())
+            .write("ruleId", res.ruleId())
+            .write("locator", res.locator());
+    }
+
+    /**
+     * Finish the record and flush it, together with the line break.
+     * @param out Output
+     * @param json JSON generator inside the record object
+     * @param res Polystat result
+     * @throws IOException If fails
+     */
+    private static void close(final Writer out, final JsonGenerator json,
+        final Result res) throws IOException {
+        json.write("millis", res.elapsed().toMillis())
+            .writeEnd()
+            .flush();
+        out.write('\n');
+        out.flush();
+    }
+
+}
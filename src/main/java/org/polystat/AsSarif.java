@@ -24,22 +24,32 @@
 package org.polystat;
 
 import com.jcabi.manifests.Manifests;
-import java.util.Optional;
-import java.util.StringJoiner;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import javax.json.Json;
-import javax.json.JsonArray;
-import javax.json.JsonArrayBuilder;
-import javax.json.JsonObject;
-import javax.json.JsonObjectBuilder;
+import javax.json.stream.JsonGenerator;
 
 /**
  * Turn list of errors into a JSON report in SARIF format.
  * <a href=https://docs.oasis-open.org/sarif/sarif/v2.0/csprd01/sarif-v2.0-csprd01.html></a>
+ *
+ * <p>The report is streamed into the output with a {@link JsonGenerator},
+ * result by result, without building the whole document in memory.
+ * Locators of objects, which were not analyzed, if any, are listed in
+ * the "skipped" property of the run.</p>
  * @since 1.0
  */
 @SuppressWarnings("PMD.TooManyMethods")
-final class AsSarif implements Supplier<String> {
+final class AsSarif implements Supplier<String>, Report {
 
     /**
      * Version of SARIF format specification.
@@ -83,53 +93,84 @@ final class AsSarif implements Supplier<String> {
      */
     private final Iterable<Result> errors;
 
+    /**
+     * Locators of objects, which were not analyzed.
+     */
+    private final Iterable<String> skipped;
+
     /**
      * Ctor.
      * @param errs Errors
      */
     AsSarif(final Iterable<Result> errs) {
+        this(errs, Collections.emptyList());
+    }
+
+    /**
+     * Ctor.
+     * @param errs Errors
+     * @param skip Locators of objects, which were not analyzed
+     */
+    AsSarif(final Iterable<Result> errs, final Iterable<String> skip) {
         this.errors = errs;
+        this.skipped = skip;
     }
 
     @Override
     public String get() {
-        final JsonArray runs = Json.createArrayBuilder().add(
-            runObject(
-                toolObject(),
-                resultsArray(this.errors),
-                invocationsArray(this.errors)
-            )
-        ).build();
-        return sarifLogObject(runs).toString();
+        final StringWriter out = new StringWriter();
+        this.print(out);
+        return out.toString();
     }
 
-    // I couldn't find a better existing function for this
-    /**
-     * Joins an iterable of strings with a delimiter.
-     * @param delim A delimiter
-     * @param strings An iterable of strings
-     * @return Strings joined with the delimiter
-     */
-    private static String joinStrings(final String delim, final Iterable<String> strings) {
-        final StringJoiner result = new StringJoiner(delim);
-        for (final String str : strings) {
-            result.add(str);
+    @Override
+    public void print(final Writer out) {
+        final JsonGenerator json = Json.createGenerator(out);
+        json.writeStartObject()
+            .write("version", AsSarif.SARIF_VERSION)
+            .write("$schema", AsSarif.SARIF_SCHEMA)
+            .writeStartArray("runs")
+            .writeStartObject();
+        AsSarif.toolObject(json);
+        json.writeStartArray("results");
+        this.each(res -> AsSarif.resultObject(json, res));
+        json.writeEnd().writeStartArray("invocations");
+        this.each(res -> AsSarif.invocationObject(json, res));
+        json.writeEnd();
+        if (this.skipped.iterator().hasNext()) {
+            json.writeStartObject("properties").writeStartArray("skipped");
+            for (final String locator : this.skipped) {
+                json.write(locator);
+            }
+            json.writeEnd().writeEnd();
         }
-        return result.toString();
+        json.writeEnd()
+            .writeEnd()
+            .writeEnd()
+            .flush();
     }
 
     /**
-     * Constructs sarifLog object.
-     * <a href=https://docs.oasis-open.org/sarif/sarif/v2.0/csprd02/sarif-v2.0-csprd02.html#_Toc10127669></a>
-     * @param runs JSON array of run objects
-     * @return JSON object sarifLog
+     * Walk through the errors and close their iterator, if it's
+     * {@link Closeable}, like the one of a {@link Store}, even if
+     * the walk stops early.
+     * @param action What to do with every error
      */
-    private static JsonObject sarifLogObject(final JsonArray runs) {
-        return Json.createObjectBuilder()
-            .add("version", AsSarif.SARIF_VERSION)
-            .add("$schema", AsSarif.SARIF_SCHEMA)
-            .add("runs", runs)
-            .build();
+    private void each(final Consumer<Result> action) {
+        final Iterator<Result> iter = this.errors.iterator();
+        final Closeable done;
+        if (iter instanceof Closeable) {
+            done = (Closeable) iter;
+        } else {
+            done = () -> { };
+        }
+        try (Closeable closing = done) {
+            while (iter.hasNext()) {
+                action.accept(iter.next());
+            }
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
     }
 
     /**
@@ -146,112 +187,85 @@ final class AsSarif implements Supplier<String> {
     }
 
     /**
-     * Generates a reportingDescriptor object containing a single id field
+     * Writes a reportingDescriptor object containing a single id field
      * which corresponds to ruleId.
      * <a href=https://docs.oasis-open.org/sarif/sarif/v2.0/csprd02/sarif-v2.0-csprd02.html#_Toc10128027></a>
+     * @param json JSON generator
      * @param res Polystat result
-     * @return JSON object reportingDescriptor
      */
-    private static JsonObject ruleObject(final Result res) {
-        return Json.createObjectBuilder().add("id", ruleId(res)).build();
+    private static void ruleObject(final JsonGenerator json, final Result res) {
+        json.writeStartObject("associatedRule")
+            .write("id", ruleId(res))
+            .writeEnd();
     }
 
     /**
-     * Generates a tool object.
+     * Writes a tool object.
      * <a href=https://docs.oasis-open.org/sarif/sarif/v2.0/csprd02/sarif-v2.0-csprd02.html#_Toc10127720></a>
-     * @return JSON object tool
+     * @param json JSON generator
      */
-    private static JsonObject toolObject() {
-        final JsonObjectBuilder driver = Json.createObjectBuilder()
-            .add("name", "Polystat")
-            .add("informationUri", "https://www.polystat.org/")
-            .add("semanticVersion", Manifests.read("Polystat-Version"));
-        final JsonObject tool = Json.createObjectBuilder()
-            .add("driver", driver)
-            .build();
-        return tool;
+    private static void toolObject(final JsonGenerator json) {
+        json.writeStartObject("tool")
+            .writeStartObject("driver")
+            .write("name", "Polystat")
+            .write("informationUri", "https://www.polystat.org/")
+            .write("semanticVersion", Manifests.read("Polystat-Version"))
+            .writeEnd()
+            .writeEnd();
     }
 
     /**
-     * Generates a run object.
-     * <a href=https://docs.oasis-open.org/sarif/sarif/v2.0/csprd02/sarif-v2.0-csprd02.html#_Toc10127681></a>
-     * @param tool JSON object tool
-     * @param results JSON array results
-     * @param invocations JSON array invocations
-     * @return JSON object run
-     */
-    private static JsonObject runObject(
-        final JsonObject tool,
-        final JsonArray results,
-        final JsonArray invocations
-    ) {
-        return Json.createObjectBuilder()
-            .add("tool", tool)
-            .add("results", results)
-            .add("invocations", invocations)
-            .build();
-    }
-
-    /**
-     * Generates a result object.
+     * Writes a result object, unless the analysis failed.
+     * The errors of the result are walked through only once.
+     * A result with errors gets a fingerprint, see {@link Fingerprint}.
      * <a href=https://docs.oasis-open.org/sarif/sarif/v2.0/csprd02/sarif-v2.0-csprd02.html#_Toc10127829></a>
+     * @param json JSON generator
      * @param res Polystat result object
-     * @return JSON object result
      */
-    private static Optional<JsonObject> resultObject(final Result res) {
-        final Optional<JsonObject> result;
-        if (res.failure().isPresent()) {
-            result = Optional.empty();
-        } else {
-            final JsonObjectBuilder resultobj = Json.createObjectBuilder();
+    private static void resultObject(final JsonGenerator json, final Result res) {
+        if (!res.failure().isPresent()) {
+            final Iterator<String> iter = res.iterator();
+            final boolean found = iter.hasNext();
             final String kind;
             final String level;
             final String text;
-            if (res.iterator().hasNext()) {
+            if (found) {
                 kind = "fail";
                 level = AsSarif.LEVEL_ERROR;
-                text = joinStrings("\n", res);
+                final StringBuilder joined = new StringBuilder(iter.next());
+                while (iter.hasNext()) {
+                    joined.append('\n').append(iter.next());
+                }
+                text = joined.toString();
             } else {
                 kind = "pass";
                 level = "none";
                 text = "No errors were found.";
             }
-            final JsonObject message =
-                Json.createObjectBuilder().add(AsSarif.PROPERTY_TEXT, text).build();
-            resultobj.add("ruleId", ruleId(res));
-            resultobj.add(AsSarif.PROPERTY_LEVEL, level);
-            resultobj.add(AsSarif.PROPERTY_KIND, kind);
-            resultobj.add(AsSarif.PROPERTY_MESSAGE, message);
-            result = Optional.of(resultobj.build());
-        }
-        return result;
-    }
-
-    /**
-     * Generates a results property of a run object.
-     * <a href=https://docs.oasis-open.org/sarif/sarif/v2.0/csprd02/sarif-v2.0-csprd02.html#_Toc10127698></a>
-     * @param results Iterable of Polystat results
-     * @return JSON array of result objects
-     */
-    private static JsonArray resultsArray(final Iterable<Result> results) {
-        final JsonArrayBuilder resultsarr = Json.createArrayBuilder();
-        for (final Result res : results) {
-            final Optional<JsonObject> resultobj = resultObject(res);
-            if (resultobj.isPresent()) {
-                resultsarr.add(resultobj.get());
+            json.writeStartObject()
+                .write("ruleId", ruleId(res))
+                .write(AsSarif.PROPERTY_LEVEL, level)
+                .write(AsSarif.PROPERTY_KIND, kind)
+                .writeStartObject(AsSarif.PROPERTY_MESSAGE)
+                .write(AsSarif.PROPERTY_TEXT, text)
+                .writeEnd();
+            if (found) {
+                json.writeStartObject("partialFingerprints")
+                    .write(Fingerprint.KEY, new Fingerprint(res, text).asString())
+                    .writeEnd();
             }
+            json.writeEnd();
         }
-        return resultsarr.build();
     }
 
     /**
-     * Creates a message object to be used in notification object.
+     * Writes a message object to be used in notification object.
      * <a href="https://docs.oasis-open.org/sarif/sarif/v2.0/csprd02/sarif-v2.0-csprd02.html#_Toc10128090"></a>
+     * @param json JSON generator
      * @param res Polystat result object
-     * @return JSON object message
      */
-    private static JsonObject messageObjectForNotification(final Result res) {
-        final JsonObjectBuilder message = Json.createObjectBuilder();
+    private static void messageObjectForNotification(final JsonGenerator json,
+        final Result res) {
         final String text;
         final String prefix =
             String.format("Analyzer \"%s\" completed successfully. ", ruleId(res));
@@ -262,66 +276,57 @@ final class AsSarif implements Supplier<String> {
         } else {
             text = String.format("%sNo errors were found", prefix);
         }
-        message.add(AsSarif.PROPERTY_TEXT, text);
-        return message.build();
+        json.writeStartObject(AsSarif.PROPERTY_MESSAGE)
+            .write(AsSarif.PROPERTY_TEXT, text)
+            .writeEnd();
     }
 
     /**
-     * Generates a notification object.
+     * Writes a notification object.
      * <a href=https://docs.oasis-open.org/sarif/sarif/v2.0/csprd02/sarif-v2.0-csprd02.html#_Toc10128085></a>
+     * @param json JSON generator
      * @param res Polystat result object
-     * @return JSON object notification
      */
-    private static JsonObject notificationObject(final Result res) {
-        final JsonObjectBuilder notification = Json.createObjectBuilder();
-        final JsonObject rule = ruleObject(res);
-        final JsonObject message = messageObjectForNotification(res);
+    private static void notificationObject(final JsonGenerator json,
+        final Result res) {
+        json.writeStartObject();
         if (res.failure().isPresent()) {
             final Throwable exc = res.failure().get();
-            final JsonObject exception = Json.createObjectBuilder()
-                .add(AsSarif.PROPERTY_KIND, exc.getClass().getName())
-                .add(AsSarif.PROPERTY_MESSAGE, exc.getMessage())
-                .build();
-            notification.add("exception", exception);
-            notification.add(AsSarif.PROPERTY_LEVEL, AsSarif.LEVEL_ERROR);
+            json.writeStartObject("exception")
+                .write(AsSarif.PROPERTY_KIND, exc.getClass().getName())
+                .write(AsSarif.PROPERTY_MESSAGE, exc.getMessage())
+                .writeEnd();
+            json.write(AsSarif.PROPERTY_LEVEL, AsSarif.LEVEL_ERROR);
         }
-        notification.add(AsSarif.PROPERTY_MESSAGE, message);
-        notification.add("associatedRule", rule);
-        return notification.build();
+        messageObjectForNotification(json, res);
+        ruleObject(json, res);
+        json.writeEnd();
     }
 
     /**
-     * Generates the toolExecutionNotifications property of invocation object,
-     * which is an array of notification objects.
+     * Writes an invocation object, an element of the invocations
+     * property of a run object, with the timing of the analysis, if known.
+     * <a href=https://docs.oasis-open.org/sarif/sarif/v2.0/csprd02/sarif-v2.0-csprd02.html#_Toc10127686></a>
      * <a href=https://docs.oasis-open.org/sarif/sarif/v2.0/csprd02/sarif-v2.0-csprd02.html#_Toc10127779></a>
+     * @param json JSON generator
      * @param res Polystat result object
-     * @return JSON array of notification objects
-     */
-    private static JsonArray toolExecutionNotificationsArray(final Result res) {
-        final JsonArrayBuilder notifs = Json.createArrayBuilder();
-        final JsonObject notification = notificationObject(res);
-        notifs.add(notification);
-        return notifs.build();
-    }
-
-    /**
-     * Generates the invocations property of a run object,
-     * which is an array of invocation objects.
-     * <a href=https://docs.oasis-open.org/sarif/sarif/v2.0/csprd02/sarif-v2.0-csprd02.html#_Toc10127686></a>
-     * @param results Iterable of Polystat result objects
-     * @return JSON array of invocation objects
      */
-    private static JsonArray invocationsArray(final Iterable<Result> results) {
-        final JsonArrayBuilder invocations = Json.createArrayBuilder();
-        for (final Result res : results) {
-            final JsonObjectBuilder invocation = Json.createObjectBuilder();
-            final Boolean successful = !res.failure().isPresent();
-            final JsonArray notifs = toolExecutionNotificationsArray(res);
-            invocation.add("toolExecutionNotifications", notifs);
-            invocation.add("executionSuccessful", successful);
-            invocations.add(invocation);
+    private static void invocationObject(final JsonGenerator json,
+        final Result res) {
+        json.writeStartObject().writeStartArray("toolExecutionNotifications");
+        notificationObject(json, res);
+        json.writeEnd()
+            .write("executionSuccessful", !res.failure().isPresent());
+        if (res.started().isPresent()) {
+            final Instant start = res.started().get().truncatedTo(ChronoUnit.MILLIS);
+            final Instant end = start.plus(res.elapsed()).truncatedTo(ChronoUnit.MILLIS);
+            json.write("startTimeUtc", start.toString())
+                .write("endTimeUtc", end.toString())
+                .writeStartObject("properties")
+                .write("elapsedMillis", res.elapsed().toMillis())
+                .writeEnd();
         }
-        return invocations.build();
+        json.writeEnd();
     }
 
 }
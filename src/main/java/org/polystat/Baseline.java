@@ -0,0 +1,134 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import javax.json.Json;
+import javax.json.stream.JsonParser;
+
+/**
+ * Fingerprints of the findings in a SARIF report of a previous run,
+ * which must not be reported again.
+ *
+ * <p>The report is read with a streaming parser and only the fingerprints
+ * are kept, as a sorted array of numbers, eight bytes per finding;
+ * a lookup is a binary search.</p>
+ *
+ * @since 1.0
+ */
+final class Baseline {
+
+    /**
+     * SARIF property, which holds the fingerprints.
+     */
+    private static final String PROPERTY = "partialFingerprints";
+
+    /**
+     * The SARIF file.
+     */
+    private final Path sarif;
+
+    /**
+     * Sorted unique fingerprints, NULL until loaded.
+     */
+    private long[] index;
+
+    /**
+     * Ctor.
+     * @param sarif The SARIF file of the previous run
+     */
+    Baseline(final Path sarif) {
+        this.sarif = sarif;
+    }
+
+    /**
+     * Was the finding with this fingerprint reported before?
+     * @param print The fingerprint
+     * @return TRUE if it's in the baseline
+     * @throws IOException If fails to read the baseline
+     */
+    public boolean contains(final Fingerprint print) throws IOException {
+        if (this.index == null) {
+            this.index = this.load();
+        }
+        return Arrays.binarySearch(this.index, print.asLong()) >= 0;
+    }
+
+    /**
+     * Number of distinct fingerprints in the baseline.
+     * @return Total
+     * @throws IOException If fails to read the baseline
+     */
+    public int size() throws IOException {
+        if (this.index == null) {
+            this.index = this.load();
+        }
+        return this.index.length;
+    }
+
+    /**
+     * Read all fingerprints from the file.
+     * @return Sorted unique fingerprints
+     * @throws IOException If fails
+     */
+    private long[] load() throws IOException {
+        long[] all = new long[1024];
+        int total = 0;
+        try (InputStream input = Files.newInputStream(this.sarif);
+            JsonParser json = Json.createParser(input)) {
+            boolean inside = false;
+            String key = "";
+            while (json.hasNext()) {
+                final JsonParser.Event event = json.next();
+                if (event == JsonParser.Event.KEY_NAME) {
+                    key = json.getString();
+                } else if (event == JsonParser.Event.START_OBJECT) {
+                    inside = Baseline.PROPERTY.equals(key);
+                } else if (event == JsonParser.Event.END_OBJECT) {
+                    inside = false;
+                } else if (inside && event == JsonParser.Event.VALUE_STRING
+                    && Fingerprint.KEY.equals(key)) {
+                    if (total == all.length) {
+                        all = Arrays.copyOf(all, all.length * 2);
+                    }
+                    all[total] = Fingerprint.parse(json.getString());
+                    total += 1;
+                }
+            }
+        }
+        Arrays.sort(all, 0, total);
+        int unique = 0;
+        for (int idx = 0; idx < total; ++idx) {
+            if (unique == 0 || all[unique - 1] != all[idx]) {
+                all[unique] = all[idx];
+                unique += 1;
+            }
+        }
+        return Arrays.copyOf(all, unique);
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.cactoos.list.ListOf;
+
+/**
+ * Binary form of results, for a {@link Worker} to send them to
+ * its parent and for a {@link Journal} to keep them on disk.
+ *
+ * <p>Failures are kept with their messages only, without the classes
+ * and stack traces of exceptions.</p>
+ *
+ * @since 1.0
+ */
+final class Binary {
+
+    /**
+     * A completed result.
+     */
+    private static final byte COMPLETED = 0;
+
+    /**
+     * A failed result.
+     */
+    private static final byte FAILED = 1;
+
+    /**
+     * Ctor.
+     */
+    private Binary() {
+        // utility class
+    }
+
+    /**
+     * Write results.
+     * @param output Output
+     * @param results The results
+     * @throws IOException If fails
+     */
+    static void write(final DataOutput output, final List<Result> results)
+        throws IOException {
+        output.writeInt(results.size());
+        for (final Result res : results) {
+            Binary.write(output, res);
+        }
+    }
+
+    /**
+     * Read results.
+     * @param input Input
+     * @return The results
+     * @throws IOException If fails
+     */
+    static List<Result> read(final DataInput input) throws IOException {
+        final int total = input.readInt();
+        final List<Result> results = new ArrayList<>(total);
+        for (int idx = 0; idx < total; ++idx) {
+            results.add(Binary.result(input));
+        }
+        return results;
+    }
+
+    /**
+     * Class of the analysis by its name.
+     * @param name The name
+     * @return The class
+     * @throws IOException If there is no such analysis
+     */
+    static Class<? extends Analysis> type(final String name) throws IOException {
+        try {
+            return Class.forName(name).asSubclass(Analysis.class);
+        } catch (final ClassNotFoundException | ClassCastException ex) {
+            throw new IOException(
+                String.format("There is no analysis \"%s\"", name), ex
+            );
+        }
+    }
+
+    /**
+     * Write a text, maybe longer than {@link DataOutput#writeUTF(String)}
+     * allows.
+     * @param output Output
+     * @param text The text
+     * @throws IOException If fails
+     */
+    static void text(final DataOutput output, final String text)
+        throws IOException {
+        final byte[] bytes = String.valueOf(text).getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Read a text.
+     * @param input Input
+     * @return The text
+     * @throws IOException If fails
+     */
+    static String text(final DataInput input) throws IOException {
+        final byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write one result.
+     * @param output Output
+     * @param res The result
+     * @throws IOException If fails
+     */
+    private static void write(final DataOutput output, final Result res)
+        throws IOException {
+        if (res.failure().isPresent()) {
+            output.writeByte(Binary.FAILED);
+        } else {
+            output.writeByte(Binary.COMPLETED);
+        }
+        Binary.text(output, res.analysis().getName());
+        Binary.text(output, res.ruleId());
+        Binary.text(output, res.locator());
+        final Optional<Instant> started = res.started();
+        output.writeBoolean(started.isPresent());
+        if (started.isPresent()) {
+            output.writeLong(started.get().getEpochSecond());
+            output.writeInt(started.get().getNano());
+            output.writeLong(res.elapsed().toNanos());
+        }
+        if (res.failure().isPresent()) {
+            Binary.text(output, res.failure().get().getMessage());
+        } else {
+            final List<String> messages = new ListOf<>(res);
+            output.writeInt(messages.size());
+            for (final String msg : messages) {
+                Binary.text(output, msg);
+            }
+        }
+    }
+
+    /**
+     * Read one result.
+     * @param input Input
+     * @return The result
+     * @throws IOException If fails
+     */
+    private static Result result(final DataInput input) throws IOException {
+        final boolean failed = input.readByte() == Binary.FAILED;
+        final Class<? extends Analysis> type = Binary.type(Binary.text(input));
+        final String rule = Binary.text(input);
+        final String locator = Binary.text(input);
+        Optional<Instant> started = Optional.empty();
+        Duration elapsed = Duration.ZERO;
+        if (input.readBoolean()) {
+            started = Optional.of(
+                Instant.ofEpochSecond(input.readLong(), input.readInt())
+            );
+            elapsed = Duration.ofNanos(input.readLong());
+        }
+        Result res;
+        if (failed) {
+            res = new Result.Failed(
+                type, new IllegalStateException(Binary.text(input)), rule, locator
+            );
+        } else {
+            final int total = input.readInt();
+            final List<String> messages = new ArrayList<>(total);
+            for (int idx = 0; idx < total; ++idx) {
+                messages.add(Binary.text(input));
+            }
+            res = new Result.Completed(type, messages, rule, locator);
+        }
+        if (started.isPresent()) {
+            res = new Result.Timed(res, started.get(), elapsed);
+        }
+        return res;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import com.jcabi.log.Logger;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import picocli.CommandLine;
+
+/**
+ * The command, which shows or prunes the files in the temp directory,
+ * see {@link Workspace}.
+ *
+ * @since 1.0
+ */
+@CommandLine.Command(
+    name = "cache",
+    description = "Show or prune XMIR and results in the temp directory",
+    mixinStandardHelpOptions = true
+)
+final class Cache {
+
+    /**
+     * Show how many files of what kinds are kept and how big they are.
+     * @param temp The directory, the default one if NULL
+     * @param size Maximum size of the files
+     * @return Exit code
+     * @throws IOException If fails
+     */
+    @CommandLine.Command(
+        name = "stats",
+        description = "Show how many files are in the temp directory and how big they are"
+    )
+    int stats(
+        @CommandLine.Option(
+            names = "--tmp",
+            description = "The directory, the shared one of runs without --tmp by default"
+        ) final Path temp,
+        @CommandLine.Option(
+            names = "--cache-size",
+            description = "The limit of the size of the directory, like 512m or 2g",
+            defaultValue = "1g"
+        ) final String size
+    ) throws IOException {
+        final Writer out = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+        out.write(new Workspace(Cache.dir(temp), size).stats());
+        out.flush();
+        return 0;
+    }
+
+    /**
+     * Delete the least recently used files, until the rest fits
+     * into the limit.
+     * @param temp The directory, the default one if NULL
+     * @param size Maximum size of the files
+     * @return Exit code
+     * @throws IOException If fails
+     */
+    @CommandLine.Command(
+        name = "prune",
+        description = "Delete the least recently used files, until the rest fits --cache-size"
+    )
+    int prune(
+        @CommandLine.Option(
+            names = "--tmp",
+            description = "The directory, the shared one of runs without --tmp by default"
+        ) final Path temp,
+        @CommandLine.Option(
+            names = "--cache-size",
+            description = "The limit of the size of the directory, like 512m or 2g, 0 to empty it",
+            defaultValue = "1g"
+        ) final String size
+    ) throws IOException {
+        final Path dir = Cache.dir(temp);
+        Logger.info(
+            this, "%d files deleted from %s",
+            new Workspace(dir, size).prune(), dir
+        );
+        return 0;
+    }
+
+    /**
+     * The directory to work with.
+     * @param temp The directory from the command line, maybe NULL
+     * @return The directory
+     */
+    private static Path dir(final Path temp) {
+        final Path dir;
+        if (temp == null) {
+            dir = Workspace.root();
+        } else {
+            dir = temp;
+        }
+        return dir;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Results, which end as soon as enough findings are seen.
+ *
+ * <p>A finding is a completed result with at least one error. Once
+ * the last finding is taken, the rest of the work is stopped with
+ * the callback, for example by cancelling the analyses, which were not
+ * finished yet.</p>
+ *
+ * @since 1.0
+ */
+final class Capped implements Iterable<Result> {
+
+    /**
+     * The results.
+     */
+    private final Iterable<Result> origin;
+
+    /**
+     * How many findings are enough.
+     */
+    private final int max;
+
+    /**
+     * What to do when enough findings are seen.
+     */
+    private final Runnable stop;
+
+    /**
+     * Were enough findings seen?
+     */
+    private final AtomicBoolean full;
+
+    /**
+     * Ctor.
+     * @param results The results
+     * @param limit How many findings are enough
+     * @param callback What to do when enough findings are seen
+     */
+    Capped(final Iterable<Result> results, final int limit, final Runnable callback) {
+        this.origin = results;
+        this.max = limit;
+        this.stop = callback;
+        this.full = new AtomicBoolean(false);
+    }
+
+    @Override
+    public Iterator<Result> iterator() {
+        return new Capped.Iter(this, this.origin.iterator());
+    }
+
+    /**
+     * Were enough findings seen, thus some results may be missing?
+     * @return TRUE if so
+     */
+    public boolean reached() {
+        return this.full.get();
+    }
+
+    /**
+     * Iterator of results.
+     *
+     * @since 1.0
+     */
+    private static final class Iter implements Iterator<Result> {
+
+        /**
+         * The owner.
+         */
+        private final Capped capped;
+
+        /**
+         * The results.
+         */
+        private final Iterator<Result> origin;
+
+        /**
+         * Findings seen so far.
+         */
+        private int found;
+
+        /**
+         * Ctor.
+         * @param owner The owner
+         * @param results The results
+         */
+        Iter(final Capped owner, final Iterator<Result> results) {
+            this.capped = owner;
+            this.origin = results;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.found < this.capped.max && this.origin.hasNext();
+        }
+
+        @Override
+        public Result next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException("There are enough findings already");
+            }
+            final Result res = this.origin.next();
+            if (!res.failure().isPresent() && res.iterator().hasNext()) {
+                this.found += 1;
+                if (this.found == this.capped.max) {
+                    this.capped.full.set(true);
+                    this.capped.stop.run();
+                }
+            }
+            return res;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import com.jcabi.log.VerboseProcess;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.cactoos.text.TextOf;
+
+/**
+ * Objects, changed in a git repository since a revision, together
+ * with all objects that depend on them as on their decoratees.
+ *
+ * <p>Changed files are taken from the local "git" command: modified,
+ * added and deleted since the revision, including uncommitted and
+ * untracked ones. Decoratees of an object are found in its source
+ * code, in the lines "NAME &gt; @" at any depth, without compiling it:
+ * the decoratee of the object itself and the ones of its inner objects,
+ * which it depends on as well; the last part of the name is used, like
+ * "b" in "a.b", the same way {@link AnOdin} finds decoratees. Names of
+ * parameters, like "x" in "x &gt; @", are found too, but they don't
+ * matter unless there are objects with the same names.</p>
+ *
+ * @since 1.0
+ */
+final class Changes {
+
+    /**
+     * Decoratee of the object or of an inner one in the file.
+     */
+    private static final Pattern DECORATEE = Pattern.compile(
+        "^[ \\t]+([^\\s\\[\\]]+)[^>\\n]*>\\s*@\\s*$", Pattern.MULTILINE
+    );
+
+    /**
+     * Directory inside the git repository.
+     */
+    private final Path dir;
+
+    /**
+     * The revision.
+     */
+    private final String rev;
+
+    /**
+     * Ctor.
+     * @param dir Directory inside the git repository
+     * @param rev The revision, like "HEAD~1" or "origin/master"
+     */
+    Changes(final Path dir, final String rev) {
+        if (rev.startsWith("-")) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Revision \"%s\" is not possible, git would take it as an option",
+                    rev
+                )
+            );
+        }
+        this.dir = dir;
+        this.rev = rev;
+    }
+
+    /**
+     * Names of the objects to analyze: changed ones and all that depend
+     * on them, directly or not.
+     * @param src All sources
+     * @return Names of objects, in alphabetical order
+     * @throws IOException If fails
+     */
+    public Set<String> affected(final Sources src) throws IOException {
+        final Map<String, Set<String>> users = new HashMap<>(0);
+        for (final String name : src.names()) {
+            for (final String base : Changes.decoratees(new TextOf(src.input(name)).toString())) {
+                users.computeIfAbsent(base, key -> new HashSet<>(0)).add(name);
+            }
+        }
+        final Set<String> found = new HashSet<>(this.changed());
+        final Queue<String> todo = new LinkedList<>(found);
+        while (!todo.isEmpty()) {
+            for (final String user : users.getOrDefault(todo.poll(), new HashSet<>(0))) {
+                if (found.add(user)) {
+                    todo.add(user);
+                }
+            }
+        }
+        final Set<String> affected = new TreeSet<>(found);
+        affected.retainAll(src.names());
+        return affected;
+    }
+
+    /**
+     * Names of the objects in changed files, even deleted ones.
+     * @return Names of objects
+     */
+    public Set<String> changed() {
+        final Set<String> names = new TreeSet<>();
+        final String files = String.join(
+            "\n",
+            this.git("diff", "--name-only", "--relative", this.rev, "--"),
+            this.git("ls-files", "--others", "--exclude-standard")
+        );
+        for (final String file : files.split("\n")) {
+            final String name = Sources.object(file.trim());
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Names of the decoratees of the object and of its inner objects,
+     * except methods.
+     * @param code Source code of the object
+     * @return Names, in alphabetical order
+     */
+    static Set<String> decoratees(final String code) {
+        final Matcher matcher = Changes.DECORATEE.matcher(code);
+        final Set<String> names = new TreeSet<>();
+        while (matcher.find()) {
+            final String base = matcher.group(1);
+            if (base.charAt(0) != '.' && !base.endsWith(".")) {
+                names.add(base.substring(base.lastIndexOf('.') + 1));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Run git in the directory.
+     * @param args Arguments
+     * @return Its stdout
+     */
+    private String git(final String... args) {
+        final String[] cmd = new String[args.length + 1];
+        cmd[0] = "git";
+        System.arraycopy(args, 0, cmd, 1, args.length);
+        try (VerboseProcess proc = new VerboseProcess(
+            new ProcessBuilder(cmd).directory(this.dir.toFile())
+        )) {
+            return proc.stdout();
+        }
+    }
+}
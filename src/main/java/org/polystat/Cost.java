@@ -0,0 +1,148 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import com.jcabi.xml.XML;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.cactoos.Func;
+
+/**
+ * Cost of the analysis of an object, to start the most expensive
+ * analyses first and to split objects between shards evenly.
+ *
+ * <p>If the analysis of the object took some time last time, according
+ * to {@link Timings}, that is its cost, in milliseconds. Otherwise, the
+ * cost is estimated in units by its XMIR: the number of objects inside,
+ * where abstract ones weigh four times more, multiplied by the depth of
+ * the chain of its decoratees plus one; then it is turned into
+ * milliseconds by the average ratio of the analysis in the past,
+ * if there was any.</p>
+ *
+ * @since 1.0
+ */
+final class Cost {
+
+    /**
+     * Weight of an abstract object against any other one.
+     */
+    private static final double ABSTRACT = 4.0;
+
+    /**
+     * XMIR by locator.
+     */
+    private final Func<String, XML> xmir;
+
+    /**
+     * Past timings.
+     */
+    private final Timings timings;
+
+    /**
+     * Units of objects, already estimated.
+     */
+    private final Map<String, Double> cache;
+
+    /**
+     * Ctor.
+     * @param xml XMIR by locator
+     * @param past Past timings
+     */
+    Cost(final Func<String, XML> xml, final Timings past) {
+        this.xmir = xml;
+        this.timings = past;
+        this.cache = new ConcurrentHashMap<>(0);
+    }
+
+    /**
+     * Cost of the analysis of the object.
+     * @param analysis The analysis
+     * @param locator Locator of the object
+     * @return Milliseconds, known or estimated
+     * @throws Exception If the object can't be compiled
+     */
+    public double of(final Class<?> analysis, final String locator) throws Exception {
+        final OptionalDouble past = this.timings.millis(analysis, locator);
+        final double cost;
+        if (past.isPresent()) {
+            cost = past.getAsDouble();
+        } else {
+            cost = this.units(locator) * this.timings.ratio(analysis);
+        }
+        return cost;
+    }
+
+    /**
+     * Cost of the object, in units, by its XMIR only.
+     * @param locator Locator of the object
+     * @return Units
+     * @throws Exception If the object can't be compiled
+     */
+    public double units(final String locator) throws Exception {
+        Double units = this.cache.get(locator);
+        if (units == null) {
+            final XML obj = this.xmir.apply(locator);
+            final double nodes = Double.parseDouble(obj.xpath("count(.//o)").get(0));
+            final double abstracts = Double.parseDouble(
+                obj.xpath("count(.//o[not(@base)])").get(0)
+            );
+            units = (1.0 + nodes + Cost.ABSTRACT * abstracts)
+                * (1 + this.depth(obj, new HashSet<>(0)));
+            this.cache.put(locator, units);
+        }
+        return units;
+    }
+
+    /**
+     * Depth of the chain of decoratees of the object, the way
+     * {@link AnOdin} resolves them.
+     * @param obj The object
+     * @param seen Names of decoratees already seen, to stop on cycles
+     * @return Depth, zero if there are no decoratees
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private int depth(final XML obj, final Set<String> seen) {
+        int depth = 0;
+        final List<String> bases = obj.xpath("o[@name='@']/@base");
+        if (!bases.isEmpty() && bases.get(0).charAt(0) != '.') {
+            final String base = bases.get(0);
+            final String name = base.substring(base.lastIndexOf('.') + 1);
+            if (seen.add(name)) {
+                int deeper;
+                try {
+                    deeper = this.depth(this.xmir.apply(String.format("\\Phi.%s", name)), seen);
+                // @checkstyle IllegalCatchCheck (1 line)
+                } catch (final Exception ex) {
+                    deeper = 0;
+                }
+                depth = 1 + deeper;
+            }
+        }
+        return depth;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 of texts, shortened to its first eight bytes, for
+ * {@link Fingerprint} of results and {@link Inputs} of objects.
+ *
+ * <p>The class is not thread-safe.</p>
+ *
+ * @since 1.0
+ */
+final class Digest {
+
+    /**
+     * The digest.
+     */
+    private final MessageDigest sha;
+
+    /**
+     * Ctor.
+     */
+    Digest() {
+        try {
+            this.sha = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Add the text, in UTF-8.
+     * @param text The text
+     * @return Itself
+     */
+    public Digest with(final String text) {
+        this.sha.update(text.getBytes(StandardCharsets.UTF_8));
+        return this;
+    }
+
+    /**
+     * The digest of all texts added, as a number; the digest is reset.
+     * @return First eight bytes of SHA-256
+     */
+    public long asLong() {
+        final byte[] hash = this.sha.digest();
+        long num = 0L;
+        for (int idx = 0; idx < Long.BYTES; ++idx) {
+            num = num << Byte.SIZE | hash[idx] & 0xFF;
+        }
+        return num;
+    }
+
+    /**
+     * The digest of all texts added, as a hex string; the digest is reset.
+     * @return Sixteen hex digits
+     */
+    public String asString() {
+        return String.format("%016x", this.asLong());
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.util.StringJoiner;
+
+/**
+ * Stable fingerprint of a result, made of its rule ID, the locator of
+ * the object, and its normalized message.
+ *
+ * <p>It is used as a SARIF "partialFingerprints" entry and doesn't
+ * change between runs, unless the finding itself changes: whitespace
+ * in the message doesn't matter.</p>
+ * <a href=https://docs.oasis-open.org/sarif/sarif/v2.1.0/os/sarif-v2.1.0-os.html#_Toc34317619></a>
+ *
+ * @since 1.0
+ */
+final class Fingerprint {
+
+    /**
+     * Key of the fingerprint in the "partialFingerprints" SARIF property.
+     */
+    static final String KEY = "polystat/v1";
+
+    /**
+     * Rule ID, including the analyzer.
+     */
+    private final String rule;
+
+    /**
+     * Locator of the object.
+     */
+    private final String locator;
+
+    /**
+     * Message.
+     */
+    private final String text;
+
+    /**
+     * Ctor.
+     * @param res The result, which is not a failure
+     */
+    Fingerprint(final Result res) {
+        this(res, Fingerprint.joined(res));
+    }
+
+    /**
+     * Ctor.
+     * @param res The result
+     * @param text Its messages, joined with line breaks
+     */
+    Fingerprint(final Result res, final String text) {
+        this.rule = String.join("/", res.analysis().getSimpleName(), res.ruleId());
+        this.locator = res.locator();
+        this.text = text;
+    }
+
+    /**
+     * The fingerprint as a number.
+     * @return First eight bytes of SHA-256
+     */
+    public long asLong() {
+        return new Digest().with(
+            String.join(
+                "\u0000",
+                this.rule,
+                this.locator,
+                this.text.trim().replaceAll("\\s+", " ")
+            )
+        ).asLong();
+    }
+
+    /**
+     * The fingerprint as a hex string, as it goes to SARIF.
+     * @return Sixteen hex digits
+     */
+    public String asString() {
+        return String.format("%016x", this.asLong());
+    }
+
+    /**
+     * Parse the fingerprint, printed by {@link #asString()}.
+     * @param hex Hex digits
+     * @return The fingerprint as a number
+     */
+    static long parse(final String hex) {
+        return Long.parseUnsignedLong(hex, 16);
+    }
+
+    /**
+     * Join messages of the result with line breaks.
+     * @param res The result
+     * @return Joined messages
+     */
+    private static String joined(final Result res) {
+        final StringJoiner text = new StringJoiner("\n");
+        for (final String msg : res) {
+            text.add(msg);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+
+/**
+ * Probe, which emits Java Flight Recorder events for the phases,
+ * so that they show up in recordings next to GC, locks, and so on.
+ *
+ * <p>Compilation phases ("parse", "transform" and "load") become
+ * {@link Flight.Compile} events, analyses become {@link Flight.Analyze}
+ * events, and all other phases become {@link Flight.Phase} events.</p>
+ *
+ * <p>The recording of the JVM starts when the probe is made and is
+ * saved when it's closed. The class is compiled apart from the others,
+ * since there is no jdk.jfr in the API of Java 8, and {@link Polystat}
+ * loads it by name, only when a recording is asked for.</p>
+ *
+ * @since 1.0
+ */
+final class Flight implements Probe, Closeable {
+
+    /**
+     * The recording.
+     */
+    private final Recording recording;
+
+    /**
+     * Ctor, which starts a recording of the JVM with the default settings.
+     * @param file Where to save it when it's closed
+     * @throws IOException If fails
+     */
+    Flight(final Path file) throws IOException {
+        try {
+            this.recording = new Recording(Configuration.getConfiguration("default"));
+        } catch (final ParseException ex) {
+            throw new IOException(ex);
+        }
+        this.recording.setName("polystat");
+        this.recording.setDestination(file);
+        this.recording.start();
+    }
+
+    @Override
+    public Probe.Span start(final String phase, final String subject) {
+        final Probe.Span span;
+        if ("parse".equals(phase) || "transform".equals(phase)
+            || "load".equals(phase)) {
+            span = Flight.span(new Flight.Compile(phase, subject));
+        } else if (phase.startsWith("analysis/")) {
+            span = Flight.span(
+                new Flight.Analyze(phase.substring(phase.indexOf('/') + 1), subject)
+            );
+        } else {
+            span = Flight.span(new Flight.Phase(phase, subject));
+        }
+        return span;
+    }
+
+    @Override
+    public void close() {
+        this.recording.stop();
+        this.recording.close();
+    }
+
+    /**
+     * Begin the event and make a span that commits it.
+     * @param event The event
+     * @return The span
+     */
+    private static Probe.Span span(final Flight.Detailed event) {
+        event.begin();
+        return new Probe.Span() {
+            @Override
+            public Probe.Span with(final String key, final Object value) {
+                event.detail(key, value);
+                return this;
+            }
+
+            @Override
+            public void close() {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.commit();
+                }
+            }
+        };
+    }
+
+    /**
+     * Event with details.
+     *
+     * @since 1.0
+     */
+    private abstract static class Detailed extends Event {
+        /**
+         * Take the detail, if the event has a field for it.
+         * @param key Name of the detail
+         * @param value Its value
+         */
+        abstract void detail(String key, Object value);
+    }
+
+    /**
+     * Compilation phase of an EO file.
+     *
+     * @since 1.0
+     * @checkstyle VisibilityModifierCheck (100 lines)
+     */
+    @Name("org.polystat.Compile")
+    @Label("Compile")
+    @Category("Polystat")
+    @Description("Parsing, transformation or loading of XMIR of an EO file")
+    static final class Compile extends Flight.Detailed {
+
+        /**
+         * Phase.
+         */
+        @Label("Phase")
+        String phase;
+
+        /**
+         * File name or locator.
+         */
+        @Label("File")
+        String file;
+
+        /**
+         * Size of the EO source.
+         */
+        @Label("Source Size")
+        @DataAmount
+        long source;
+
+        /**
+         * Size of the XMIR.
+         */
+        @Label("XMIR Size")
+        @DataAmount
+        long xmir;
+
+        /**
+         * Ctor.
+         * @param phase Phase
+         * @param file File name or locator
+         */
+        Compile(final String phase, final String file) {
+            super();
+            this.phase = phase;
+            this.file = file;
+        }
+
+        @Override
+        void detail(final String key, final Object value) {
+            if ("sourceBytes".equals(key)) {
+                this.source = ((Number) value).longValue();
+            } else if ("xmirBytes".equals(key)) {
+                this.xmir = ((Number) value).longValue();
+            }
+        }
+    }
+
+    /**
+     * Analysis of an object by one analyzer.
+     *
+     * @since 1.0
+     * @checkstyle VisibilityModifierCheck (100 lines)
+     */
+    @Name("org.polystat.Analyze")
+    @Label("Analyze")
+    @Category("Polystat")
+    @Description("Analysis of an object by one analyzer")
+    static final class Analyze extends Flight.Detailed {
+
+        /**
+         * Analyzer.
+         */
+        @Label("Analyzer")
+        String analyzer;
+
+        /**
+         * Locator.
+         */
+        @Label("Locator")
+        String locator;
+
+        /**
+         * How many results.
+         */
+        @Label("Results")
+        int results;
+
+        /**
+         * Failure message, if failed.
+         */
+        @Label("Failure")
+        String failure;
+
+        /**
+         * Ctor.
+         * @param analyzer Analyzer
+         * @param locator Locator
+         */
+        Analyze(final String analyzer, final String locator) {
+            super();
+            this.analyzer = analyzer;
+            this.locator = locator;
+        }
+
+        @Override
+        void detail(final String key, final Object value) {
+            if ("results".equals(key)) {
+                this.results = ((Number) value).intValue();
+            } else if ("failure".equals(key)) {
+                this.failure = String.valueOf(value);
+            }
+        }
+    }
+
+    /**
+     * Any other phase.
+     *
+     * @since 1.0
+     * @checkstyle VisibilityModifierCheck (100 lines)
+     */
+    @Name("org.polystat.Phase")
+    @Label("Phase")
+    @Category("Polystat")
+    @Description("Phase of a Polystat run")
+    static final class Phase extends Flight.Detailed {
+
+        /**
+         * Phase.
+         */
+        @Label("Phase")
+        String phase;
+
+        /**
+         * What is processed.
+         */
+        @Label("Subject")
+        String subject;
+
+        /**
+         * Ctor.
+         * @param phase Phase
+         * @param subject What is processed
+         */
+        Phase(final String phase, final String subject) {
+            super();
+            this.phase = phase;
+            this.subject = subject;
+        }
+
+        @Override
+        void detail(final String key, final Object value) {
+            // no details for generic phases
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.cactoos.scalar.Solid;
+import org.cactoos.scalar.Unchecked;
+import org.cactoos.text.TextOf;
+
+/**
+ * Digests and sizes of everything the analyses of objects read: the
+ * source code of an object and of its decoratees, and of theirs.
+ *
+ * <p>Decoratees are found in the source code, the same way
+ * {@link Changes} finds them. The digest also covers the salt: versions
+ * of the analyzers and whatever else results depend on. When the digest
+ * of an object is the same as before, its results are the same too, so
+ * they can be taken from the {@link Journal} instead of analyzing the
+ * object again.</p>
+ *
+ * <p>The class is thread-safe. Sources are read only once, make
+ * a new one to see their changes.</p>
+ *
+ * @since 1.0
+ */
+final class Inputs {
+
+    /**
+     * EO files.
+     */
+    private final Sources sources;
+
+    /**
+     * Names of all objects.
+     */
+    private final Unchecked<Set<String>> names;
+
+    /**
+     * Digests by names of objects.
+     */
+    private final Map<String, String> digests;
+
+    /**
+     * What else results depend on, besides the sources.
+     */
+    private final String salt;
+
+    /**
+     * Ctor.
+     * @param src EO files
+     */
+    Inputs(final Sources src) {
+        this(src, "");
+    }
+
+    /**
+     * Ctor.
+     * @param src EO files
+     * @param extra What else results depend on, like versions of analyzers
+     */
+    Inputs(final Sources src, final String extra) {
+        this.sources = src;
+        this.salt = extra;
+        this.names = new Unchecked<>(new Solid<>(() -> new HashSet<>(src.names())));
+        this.digests = new ConcurrentHashMap<>(0);
+    }
+
+    /**
+     * The digest of the object.
+     * @param name Name of the object, like "test"
+     * @return Sixteen hex digits
+     * @throws IOException If fails
+     */
+    public String digest(final String name) throws IOException {
+        String digest = this.digests.get(name);
+        if (digest == null) {
+            digest = this.calculate(name);
+            this.digests.put(name, digest);
+        }
+        return digest;
+    }
+
+    /**
+     * The size of the object, which costs no compilation: the bytes of
+     * its source code and of its decoratees.
+     * @param name Name of the object, like "test"
+     * @return Bytes
+     * @throws IOException If fails
+     */
+    public long size(final String name) throws IOException {
+        long size = 0L;
+        for (final String next : this.closure(name).keySet()) {
+            size += this.sources.size(next);
+        }
+        return size;
+    }
+
+    /**
+     * Calculate the digest of the object and its decoratees.
+     * @param name Name of the object
+     * @return Sixteen hex digits
+     * @throws IOException If fails
+     */
+    private String calculate(final String name) throws IOException {
+        final Digest digest = new Digest().with(String.join("\u0000", this.salt, ""));
+        for (final Map.Entry<String, String> next : this.closure(name).entrySet()) {
+            digest.with(String.join("\u0000", next.getKey(), next.getValue(), ""));
+        }
+        return digest.asString();
+    }
+
+    /**
+     * The object and all its decoratees, direct or not, which are
+     * among the sources.
+     * @param name Name of the object
+     * @return Source code by names, the object first, in the order
+     *  they are found
+     * @throws IOException If fails
+     */
+    private Map<String, String> closure(final String name) throws IOException {
+        final Map<String, String> found = new LinkedHashMap<>(0);
+        final Queue<String> todo = new LinkedList<>();
+        todo.add(name);
+        while (!todo.isEmpty()) {
+            final String next = todo.poll();
+            if (this.names.value().contains(next) && !found.containsKey(next)) {
+                final String code = new TextOf(this.sources.input(next)).toString();
+                found.put(next, code);
+                todo.addAll(Changes.decoratees(code));
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,370 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import com.jcabi.log.Logger;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * A journal of analyses, which are done, with their results, to resume
+ * a run after a crash, or to not repeat them in the next build.
+ *
+ * <p>Every record is the analysis, the locator of the object, usually
+ * with the digest of its {@link Inputs}, and the results, in their
+ * {@link Binary} form, with the length in front and
+ * a CRC32 checksum in the end. A record, which was not written to the
+ * end, for example because the process was killed, is dropped when
+ * the journal is read, together with everything after it.</p>
+ *
+ * <p>Only the records read on resume are kept on the heap; the new ones
+ * go to the file only, so the journal doesn't keep all results of the
+ * run in memory.</p>
+ *
+ * <p>When the object changes, its new results are appended with the new
+ * digest, while the old ones are not needed anymore. Such records are
+ * dropped when the journal is read, and the file is written again
+ * without them, so it doesn't grow from build to build.</p>
+ *
+ * <p>The file is flushed to the disk according to the policy:
+ * "always", after every record, "never", leaving it to the
+ * operating system, or a number, after so many records.</p>
+ *
+ * @since 1.0
+ */
+final class Journal implements Closeable {
+
+    /**
+     * Bytes of a record around its payload: the length and the checksum.
+     */
+    private static final int FRAME = Integer.BYTES + Long.BYTES;
+
+    /**
+     * Records read on resume, by analyses and locators.
+     */
+    private final Map<String, List<Result>> done;
+
+    /**
+     * The file, which is not interruptible, unlike a file channel,
+     * so cancelled analyses can't close it.
+     */
+    private final RandomAccessFile output;
+
+    /**
+     * After how many records to flush the file to the disk,
+     * zero if never.
+     */
+    private final int every;
+
+    /**
+     * Records written since the last flush to the disk.
+     */
+    private int pending;
+
+    /**
+     * Ctor.
+     * @param file The file
+     * @param fsync When to flush the file to the disk
+     * @param resume Read the records from the file, instead of
+     *  starting from scratch
+     * @throws IOException If fails
+     */
+    Journal(final Path file, final String fsync, final boolean resume)
+        throws IOException {
+        this.every = Journal.every(fsync);
+        this.done = new ConcurrentHashMap<>(0);
+        long valid = 0L;
+        if (resume && Files.exists(file)) {
+            valid = this.load(file);
+            Logger.debug(
+                this, "%d analyses are resumed from %s", this.done.size(), file
+            );
+        }
+        this.output = new RandomAccessFile(file.toFile(), "rw");
+        this.output.setLength(valid);
+        this.output.seek(valid);
+    }
+
+    /**
+     * Results of the analysis of the object, if it is done.
+     * @param type The analysis
+     * @param locator Locator of the object
+     * @return Results, if done
+     */
+    public Optional<List<Result>> results(final Class<? extends Analysis> type,
+        final String locator) {
+        return Optional.ofNullable(this.done.get(Journal.key(type, locator)));
+    }
+
+    /**
+     * Write the results of the analysis of the object.
+     * @param type The analysis
+     * @param locator Locator of the object
+     * @param results Its results
+     * @throws IOException If fails
+     */
+    public void append(final Class<? extends Analysis> type, final String locator,
+        final List<Result> results) throws IOException {
+        final byte[] record = Journal.record(type.getName(), locator, results);
+        synchronized (this.output) {
+            this.output.write(record);
+            this.pending += 1;
+            if (this.every > 0 && this.pending >= this.every) {
+                this.output.getFD().sync();
+                this.pending = 0;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this.output) {
+            if (this.pending > 0 && this.every > 0) {
+                this.output.getFD().sync();
+            }
+            this.output.close();
+        }
+    }
+
+    /**
+     * Read all complete records.
+     * @param file The file
+     * @return Length of the complete records, in bytes
+     * @throws IOException If fails
+     */
+    private long load(final Path file) throws IOException {
+        final Map<String, String> latest = new HashMap<>(0);
+        int stale = 0;
+        long valid = 0L;
+        try (DataInputStream input = Journal.input(file)) {
+            while (true) {
+                final Optional<byte[]> payload = Journal.payload(input);
+                if (!payload.isPresent()) {
+                    break;
+                }
+                final DataInputStream data = new DataInputStream(
+                    new ByteArrayInputStream(payload.get())
+                );
+                final Class<? extends Analysis> type = Binary.type(Binary.text(data));
+                final String key = Journal.key(type, Binary.text(data));
+                final String old = latest.put(Journal.object(key), key);
+                if (old != null && !old.equals(key)) {
+                    this.done.remove(old);
+                    stale += 1;
+                }
+                this.done.put(key, Binary.read(data));
+                valid += payload.get().length + Journal.FRAME;
+            }
+        }
+        if (stale > 0) {
+            valid = Journal.compact(file, new HashSet<>(latest.values()), valid);
+            Logger.debug(this, "%d stale records dropped from %s", stale, file);
+        }
+        return valid;
+    }
+
+    /**
+     * Write the file again, with the records of the keys only, taken
+     * from the file itself.
+     * @param file The file
+     * @param keys Keys of the records to keep
+     * @param valid Length of the complete records, in bytes
+     * @return Length of the records kept, in bytes
+     * @throws IOException If fails
+     */
+    private static long compact(final Path file, final Set<String> keys,
+        final long valid) throws IOException {
+        final Path temp = file.resolveSibling(String.format("%s.tmp", file.getFileName()));
+        try (DataInputStream input = Journal.input(file);
+            DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp))
+            )) {
+            long read = 0L;
+            while (read < valid) {
+                final byte[] payload = Journal.payload(input).get();
+                read += payload.length + Journal.FRAME;
+                final DataInputStream data = new DataInputStream(
+                    new ByteArrayInputStream(payload)
+                );
+                final String key = String.format(
+                    "%s %s", Binary.text(data), Binary.text(data)
+                );
+                if (keys.contains(key)) {
+                    out.write(Journal.frame(payload));
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        return Files.size(file);
+    }
+
+    /**
+     * Buffered input of the file.
+     * @param file The file
+     * @return The input
+     * @throws IOException If fails
+     */
+    private static DataInputStream input(final Path file) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+    }
+
+    /**
+     * The payload of the next record, if it is complete.
+     * @param input The input
+     * @return The payload, or empty if the record is torn or there is none
+     * @throws IOException If fails
+     */
+    private static Optional<byte[]> payload(final DataInputStream input)
+        throws IOException {
+        Optional<byte[]> payload = Optional.empty();
+        try {
+            final int length = input.readInt();
+            if (length >= 0) {
+                final byte[] bytes = new byte[length];
+                input.readFully(bytes);
+                final CRC32 crc = new CRC32();
+                crc.update(bytes);
+                if (crc.getValue() == input.readLong()) {
+                    payload = Optional.of(bytes);
+                }
+            }
+        } catch (final EOFException ex) {
+            payload = Optional.empty();
+        }
+        return payload;
+    }
+
+    /**
+     * The record of the analysis of the object, framed.
+     * @param type Name of the class of the analysis
+     * @param locator Locator of the object
+     * @param results Its results
+     * @return Bytes
+     * @throws IOException If fails
+     */
+    private static byte[] record(final String type, final String locator,
+        final List<Result> results) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream data = new DataOutputStream(bytes);
+        Binary.text(data, type);
+        Binary.text(data, locator);
+        Binary.write(data, results);
+        data.flush();
+        return Journal.frame(bytes.toByteArray());
+    }
+
+    /**
+     * The payload with its length in front and its checksum in the end.
+     * @param payload The payload
+     * @return Bytes
+     */
+    private static byte[] frame(final byte[] payload) {
+        final CRC32 crc = new CRC32();
+        crc.update(payload);
+        final ByteBuffer record = ByteBuffer.allocate(payload.length + Journal.FRAME);
+        record.putInt(payload.length).put(payload).putLong(crc.getValue());
+        return record.array();
+    }
+
+    /**
+     * The analysis and the object of the key, without the digest
+     * of its inputs.
+     * @param key The key, like "org.polystat.AnFaR \\Phi.test 01ab..."
+     * @return The analysis and the locator
+     */
+    private static String object(final String key) {
+        final int first = key.indexOf(' ');
+        final int second = key.indexOf(' ', first + 1);
+        final String object;
+        if (second < 0) {
+            object = key;
+        } else {
+            object = key.substring(0, second);
+        }
+        return object;
+    }
+
+    /**
+     * Key of the analysis of the object.
+     * @param type The analysis
+     * @param locator Locator of the object
+     * @return The key
+     */
+    private static String key(final Class<? extends Analysis> type,
+        final String locator) {
+        return String.format("%s %s", type.getName(), locator);
+    }
+
+    /**
+     * After how many records to flush the file.
+     * @param fsync The policy: "always", "never" or a number
+     * @return Records, zero if never
+     */
+    static int every(final String fsync) {
+        final int every;
+        if ("always".equals(fsync)) {
+            every = 1;
+        } else if ("never".equals(fsync)) {
+            every = 0;
+        } else {
+            try {
+                every = Integer.parseInt(fsync);
+            } catch (final NumberFormatException ex) {
+                throw new IllegalArgumentException(
+                    String.format(
+                        "The fsync policy \"%s\" is neither always, never nor a number",
+                        fsync
+                    ),
+                    ex
+                );
+            }
+            if (every < 1) {
+                throw new IllegalArgumentException(
+                    String.format("The fsync policy %d must be positive", every)
+                );
+            }
+        }
+        return every;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.stream.Collectors;
+
+/**
+ * Locators of all objects in EO files, one per file, "\Phi.test"
+ * for "test.eo", in alphabetical order, the same way {@link Program}
+ * finds them.
+ *
+ * @since 1.0
+ */
+final class Locators implements Iterable<String> {
+
+    /**
+     * EO files.
+     */
+    private final Sources sources;
+
+    /**
+     * Ctor.
+     * @param src The dir with .eo sources
+     */
+    Locators(final Path src) {
+        this(new Sources.Dir(src));
+    }
+
+    /**
+     * Ctor.
+     * @param src EO files
+     */
+    Locators(final Sources src) {
+        this.sources = src;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        try {
+            return this.sources.names().stream()
+                .map(name -> String.format("\\Phi.%s", name))
+                .collect(Collectors.toList())
+                .iterator();
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,391 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * Probe, which measures wall time, CPU time and allocated bytes
+ * of every phase, and sums them up by phase names.
+ *
+ * <p>CPU time and allocated bytes are taken from the {@link ThreadMXBean}
+ * of the current thread, when the JVM supports that; otherwise they
+ * are zeros. The peak resident set size of the process is saved too,
+ * where "/proc/self/status" is available.</p>
+ *
+ * <p>For phases, which report the depth of their queue in the "queue"
+ * detail, like the stages of {@link Pipeline}, the deepest one is saved,
+ * together with their throughput: how many times per second of the run
+ * they were done.</p>
+ *
+ * @since 1.0
+ */
+final class Metrics implements Probe {
+
+    /**
+     * Threads bean.
+     */
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /**
+     * The detail with the depth of the queue of the phase.
+     */
+    private static final String QUEUE = "queue";
+
+    /**
+     * Phases by names, in the order of their first start.
+     */
+    private final Map<String, Metrics.Phase> phases;
+
+    /**
+     * When the run started, in nanoseconds.
+     */
+    private final long started;
+
+    /**
+     * Ctor.
+     */
+    Metrics() {
+        this.phases = Collections.synchronizedMap(new LinkedHashMap<>(0));
+        this.started = System.nanoTime();
+    }
+
+    @Override
+    public Probe.Span start(final String phase, final String subject) {
+        final long wall = System.nanoTime();
+        final long cpu = Metrics.cpu();
+        final long allocated = Metrics.allocated();
+        final LongAccumulator queue = new LongAccumulator(Math::max, -1L);
+        return new Probe.Span() {
+            @Override
+            public Probe.Span with(final String key, final Object value) {
+                if (Metrics.QUEUE.equals(key) && value instanceof Number) {
+                    queue.accumulate(((Number) value).longValue());
+                }
+                return this;
+            }
+
+            @Override
+            public void close() {
+                Metrics.this.phases.computeIfAbsent(phase, key -> new Metrics.Phase())
+                    .add(
+                        System.nanoTime() - wall,
+                        Metrics.cpu() - cpu,
+                        Metrics.allocated() - allocated,
+                        queue.get()
+                    );
+            }
+        };
+    }
+
+    /**
+     * Save all metrics to the file, in Prometheus text format if
+     * the file name ends with ".prom" or ".txt", or in JSON otherwise.
+     * @param file The file
+     * @throws IOException If fails
+     */
+    public void save(final Path file) throws IOException {
+        final String name = file.getFileName().toString();
+        try (Writer out = Files.newBufferedWriter(file)) {
+            if (name.endsWith(".prom") || name.endsWith(".txt")) {
+                this.prometheus(out);
+            } else {
+                this.json(out);
+            }
+        }
+    }
+
+    /**
+     * Print as JSON.
+     * @param out Output
+     */
+    private void json(final Writer out) {
+        final JsonGenerator json = Json.createGenerator(out);
+        json.writeStartObject().writeStartArray("phases");
+        synchronized (this.phases) {
+            for (final Map.Entry<String, Metrics.Phase> ent : this.phases.entrySet()) {
+                final Metrics.Phase phase = ent.getValue();
+                json.writeStartObject()
+                    .write("phase", ent.getKey())
+                    .write("count", phase.count.sum())
+                    .write("wallNanos", phase.wall.sum())
+                    .write("cpuNanos", phase.cpu.sum())
+                    .write("allocatedBytes", phase.allocated.sum());
+                if (phase.queue.get() >= 0L) {
+                    json.write("maxQueue", phase.queue.get())
+                        .write("perSecond", this.throughput(phase));
+                }
+                json.writeEnd();
+            }
+        }
+        json.writeEnd();
+        final OptionalLong rss = Metrics.rss();
+        if (rss.isPresent()) {
+            json.write("peakRssBytes", rss.getAsLong());
+        }
+        json.writeEnd().flush();
+    }
+
+    /**
+     * Print in Prometheus text exposition format.
+     * @param out Output
+     * @throws IOException If fails
+     */
+    private void prometheus(final Writer out) throws IOException {
+        synchronized (this.phases) {
+            this.counter(
+                out, "polystat_phase_calls_total",
+                "How many times the phase was executed",
+                phase -> (double) phase.count.sum()
+            );
+            this.counter(
+                out, "polystat_phase_wall_seconds_total",
+                "Wall time spent in the phase",
+                phase -> Metrics.seconds(phase.wall.sum())
+            );
+            this.counter(
+                out, "polystat_phase_cpu_seconds_total",
+                "CPU time spent in the phase",
+                phase -> Metrics.seconds(phase.cpu.sum())
+            );
+            this.counter(
+                out, "polystat_phase_allocated_bytes_total",
+                "Bytes allocated on the heap in the phase",
+                phase -> (double) phase.allocated.sum()
+            );
+            this.gauge(
+                out, "polystat_stage_queue_max",
+                "The deepest queue of the stage",
+                phase -> (double) phase.queue.get()
+            );
+            this.gauge(
+                out, "polystat_stage_per_second",
+                "How many times per second of the run the stage was done",
+                this::throughput
+            );
+        }
+        final OptionalLong rss = Metrics.rss();
+        if (rss.isPresent()) {
+            out.write(
+                String.format(
+                    "# HELP %1$s %2$s%n# TYPE %1$s gauge%n%1$s %3$d%n",
+                    "polystat_peak_rss_bytes",
+                    "Peak resident set size of the process",
+                    rss.getAsLong()
+                )
+            );
+        }
+    }
+
+    /**
+     * Print one Prometheus counter for all phases.
+     * @param out Output
+     * @param metric Metric name
+     * @param help Its description
+     * @param value Value of the metric for a phase
+     * @throws IOException If fails
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    private void counter(final Writer out, final String metric, final String help,
+        final ToDoubleFunction<Metrics.Phase> value)
+        throws IOException {
+        out.write(String.format("# HELP %s %s%n# TYPE %1$s counter%n", metric, help));
+        for (final Map.Entry<String, Metrics.Phase> ent : this.phases.entrySet()) {
+            out.write(
+                String.format(
+                    "%s{phase=\"%s\"} %s%n",
+                    metric,
+                    ent.getKey().replace("\\", "\\\\").replace("\"", "\\\""),
+                    value.applyAsDouble(ent.getValue())
+                )
+            );
+        }
+    }
+
+    /**
+     * Print one Prometheus gauge for the phases with queues.
+     * @param out Output
+     * @param metric Metric name
+     * @param help Its description
+     * @param value Value of the metric for a phase
+     * @throws IOException If fails
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    private void gauge(final Writer out, final String metric, final String help,
+        final ToDoubleFunction<Metrics.Phase> value)
+        throws IOException {
+        out.write(String.format("# HELP %s %s%n# TYPE %1$s gauge%n", metric, help));
+        for (final Map.Entry<String, Metrics.Phase> ent : this.phases.entrySet()) {
+            if (ent.getValue().queue.get() >= 0L) {
+                out.write(
+                    String.format(
+                        "%s{stage=\"%s\"} %s%n",
+                        metric,
+                        ent.getKey().replace("\\", "\\\\").replace("\"", "\\\""),
+                        value.applyAsDouble(ent.getValue())
+                    )
+                );
+            }
+        }
+    }
+
+    /**
+     * How many times per second of the run the phase was done.
+     * @param phase The phase
+     * @return Times per second
+     */
+    private double throughput(final Metrics.Phase phase) {
+        return phase.count.sum() / Math.max(
+            Metrics.seconds(System.nanoTime() - this.started), Double.MIN_VALUE
+        );
+    }
+
+    /**
+     * Nanoseconds to seconds.
+     * @param nanos Nanoseconds
+     * @return Seconds
+     */
+    private static double seconds(final long nanos) {
+        return (double) nanos / TimeUnit.SECONDS.toNanos(1L);
+    }
+
+    /**
+     * CPU time of the current thread.
+     * @return Nanoseconds, or zero if not supported
+     */
+    private static long cpu() {
+        long nanos = 0L;
+        if (Metrics.THREADS.isCurrentThreadCpuTimeSupported()) {
+            nanos = Metrics.THREADS.getCurrentThreadCpuTime();
+        }
+        return nanos;
+    }
+
+    /**
+     * Bytes allocated by the current thread so far.
+     * @return Bytes, or zero if not supported
+     */
+    private static long allocated() {
+        long bytes = 0L;
+        if (Metrics.THREADS instanceof com.sun.management.ThreadMXBean) {
+            final com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) Metrics.THREADS;
+            if (bean.isThreadAllocatedMemorySupported()
+                && bean.isThreadAllocatedMemoryEnabled()) {
+                bytes = bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Peak resident set size of the process, the "VmHWM" line of
+     * "/proc/self/status".
+     * @return Bytes, or nothing if not on Linux
+     */
+    private static OptionalLong rss() {
+        final Path status = Paths.get("/proc/self/status");
+        OptionalLong bytes = OptionalLong.empty();
+        if (Files.isReadable(status)) {
+            try (Stream<String> lines = Files.lines(status)) {
+                bytes = lines
+                    .filter(line -> line.startsWith("VmHWM:"))
+                    .mapToLong(
+                        line -> Long.parseLong(line.replaceAll("[^0-9]", "")) << 10
+                    )
+                    .findFirst();
+            } catch (final IOException ex) {
+                bytes = OptionalLong.empty();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Totals of one phase.
+     *
+     * @since 1.0
+     */
+    private static final class Phase {
+
+        /**
+         * How many times.
+         */
+        private final LongAdder count = new LongAdder();
+
+        /**
+         * Wall time, nanoseconds.
+         */
+        private final LongAdder wall = new LongAdder();
+
+        /**
+         * CPU time, nanoseconds.
+         */
+        private final LongAdder cpu = new LongAdder();
+
+        /**
+         * Allocated bytes.
+         */
+        private final LongAdder allocated = new LongAdder();
+
+        /**
+         * The deepest queue, negative if the phase has none.
+         */
+        private final LongAccumulator queue = new LongAccumulator(Math::max, -1L);
+
+        /**
+         * Add one execution.
+         * @param nanos Wall time
+         * @param cpus CPU time
+         * @param bytes Allocated bytes
+         * @param depth Depth of the queue, negative if none
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        void add(final long nanos, final long cpus, final long bytes,
+            final long depth) {
+            this.count.increment();
+            this.wall.add(nanos);
+            this.cpu.add(cpus);
+            this.allocated.add(bytes);
+            this.queue.accumulate(depth);
+        }
+    }
+}
@@ -0,0 +1,575 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import com.jcabi.log.Logger;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.cactoos.BiFunc;
+import org.cactoos.Func;
+import org.cactoos.list.ListOf;
+
+/**
+ * Analyses of objects in four stages: discover, compile, analyze and
+ * report, each in its own threads, with bounded queues between them.
+ *
+ * <p>The discover stage hands objects over, in their original order,
+ * to the compile stage, which compiles them to XMIR and estimates the
+ * costs of their analyses. Analyses of compiled objects go to the
+ * analyze stage, where the most expensive of those, which are ready,
+ * start first. The report stage is the thread, which reads the results:
+ * they come in the original order of objects and analyses, each as soon
+ * as it is ready, so the report doesn't depend on the number of threads.
+ * Compilation of the next objects, which mostly waits for the disk,
+ * goes on while the previous ones are analyzed.</p>
+ *
+ * <p>No more than so many objects, the window, are between the discover
+ * and the report stages at the same time: when the analyses or the report
+ * fall behind, the discover stage waits, so the memory taken by XMIR
+ * and results doesn't grow with the number of objects.</p>
+ *
+ * <p>Every stage reports its work to the {@link Probe}, as phases
+ * "stage/discover", "stage/compile", "stage/analyze" and "stage/report",
+ * with the depth of its queue in the "queue" detail: objects, which are
+ * not handed over yet, objects waiting to be compiled, analyses waiting
+ * for a thread, and objects waiting to be reported.</p>
+ *
+ * <p>When the results of a run are closed before they are read to the
+ * end, its analyses, which are not started yet, are not started, and
+ * the running ones are interrupted.</p>
+ *
+ * <p>The class is thread-safe, many runs may go through it at the
+ * same time and share its threads. When it is closed, the analyses of
+ * its runs, which are not finished, are reported as failures.</p>
+ *
+ * @since 1.0
+ */
+final class Pipeline implements Closeable {
+
+    /**
+     * Threads of the discover stage, one for every run.
+     */
+    private final ExecutorService discover;
+
+    /**
+     * Threads of the compile stage.
+     */
+    private final ExecutorService compile;
+
+    /**
+     * Threads of the analyze stage, the most expensive analyses first.
+     */
+    private final ExecutorService analyze;
+
+    /**
+     * How many objects of a run may be between the discover and the
+     * report stages.
+     */
+    private final int window;
+
+    /**
+     * Probe of the stages.
+     */
+    private final Probe probe;
+
+    /**
+     * Analyses submitted so far, to keep the order of equally
+     * expensive ones.
+     */
+    private final AtomicLong submitted;
+
+    /**
+     * Runs, which are not closed yet.
+     */
+    private final Set<Pipeline.Flow> flows;
+
+    /**
+     * Ctor.
+     * @param threads How many threads compile and how many analyze
+     * @param objects How many objects of a run may be in the pipeline
+     * @param prb Probe of the stages
+     */
+    Pipeline(final int threads, final int objects, final Probe prb) {
+        this.discover = Executors.newCachedThreadPool(Pipeline.daemons("polystat-discover"));
+        this.compile = Executors.newFixedThreadPool(
+            threads, Pipeline.daemons("polystat-compile")
+        );
+        this.analyze = new ThreadPoolExecutor(
+            threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<>(), Pipeline.daemons("polystat-analyze")
+        );
+        this.window = objects;
+        this.probe = prb;
+        this.submitted = new AtomicLong();
+        this.flows = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Run all analyses of the objects.
+     * @param locators Locators of objects
+     * @param analyses Analyses of every object
+     * @param xmir Compile the object, by its locator
+     * @param cost Cost of the analysis of the object
+     * @param run Run the analysis of the object
+     * @return Results, in the order of objects and analyses, to close
+     *  if not read to the end
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    Stream<Result> results(final List<String> locators, final List<Analysis> analyses,
+        final Func<String, ?> xmir, final BiFunc<Analysis, String, Double> cost,
+        final BiFunc<Analysis, String, Iterable<Result>> run) {
+        final Pipeline.Flow flow = new Pipeline.Flow(locators, analyses, xmir, cost, run);
+        this.flows.add(flow);
+        final Future<?> feeder = this.discover.submit(flow::feed);
+        return IntStream.range(0, locators.size())
+            .mapToObj(flow::report)
+            .flatMap(List::stream)
+            .onClose(
+                () -> {
+                    flow.stop();
+                    feeder.cancel(true);
+                    this.flows.remove(flow);
+                }
+            );
+    }
+
+    /**
+     * Stop all stages and fail the analyses, which are not finished.
+     *
+     * <p>Objects, which are not handed over, compiled or analyzed yet,
+     * are dropped from the queues of the stages, so their analyses are
+     * cancelled by their runs, otherwise the report would wait for them
+     * forever.</p>
+     */
+    @Override
+    public void close() {
+        this.discover.shutdownNow();
+        this.compile.shutdownNow();
+        this.analyze.shutdownNow();
+        for (final Pipeline.Flow flow : this.flows) {
+            flow.cancel();
+        }
+    }
+
+    /**
+     * Factory of daemon threads, so that they don't keep the JVM alive.
+     * @param name Name of the threads
+     * @return The factory
+     */
+    private static ThreadFactory daemons(final String name) {
+        return task -> {
+            final Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * The depth of a queue between stages.
+     *
+     * @since 1.0
+     */
+    private static final class Queue {
+
+        /**
+         * Items in the queue.
+         */
+        private final AtomicInteger items = new AtomicInteger();
+
+        /**
+         * An item is put into the queue.
+         */
+        void put() {
+            this.items.incrementAndGet();
+        }
+
+        /**
+         * An item is taken from the queue.
+         * @return How many items are left in it
+         */
+        int take() {
+            return this.items.decrementAndGet();
+        }
+    }
+
+    /**
+     * An analysis of an object, waiting for a thread, ordered by
+     * its cost, the most expensive first; it may be cancelled.
+     *
+     * @since 1.0
+     */
+    private static final class Task extends FutureTask<Void>
+        implements Comparable<Pipeline.Task> {
+
+        /**
+         * Cost of the analysis.
+         */
+        private final double cost;
+
+        /**
+         * The number of the analysis in the order of submission.
+         */
+        private final long number;
+
+        /**
+         * Ctor.
+         * @param est Cost of the analysis
+         * @param num The number of the analysis
+         * @param task The analysis
+         */
+        Task(final double est, final long num, final Runnable task) {
+            super(task, null);
+            this.cost = est;
+            this.number = num;
+        }
+
+        @Override
+        public int compareTo(final Pipeline.Task other) {
+            int cmp = Double.compare(other.cost, this.cost);
+            if (cmp == 0) {
+                cmp = Long.compare(this.number, other.number);
+            }
+            return cmp;
+        }
+    }
+
+    /**
+     * One run of the pipeline.
+     *
+     * @since 1.0
+     */
+    private final class Flow {
+
+        /**
+         * Locators of objects.
+         */
+        private final List<String> locators;
+
+        /**
+         * Analyses of every object.
+         */
+        private final List<Analysis> analyses;
+
+        /**
+         * Compile the object.
+         */
+        private final Func<String, ?> xmir;
+
+        /**
+         * Cost of the analysis of the object.
+         */
+        private final BiFunc<Analysis, String, Double> cost;
+
+        /**
+         * Run the analysis of the object.
+         */
+        private final BiFunc<Analysis, String, Iterable<Result>> run;
+
+        /**
+         * Results of every analysis of every object, as they are ready.
+         */
+        private final List<List<CompletableFuture<Iterable<Result>>>> futures;
+
+        /**
+         * Analyses of every object, which are not finished.
+         */
+        private final List<AtomicInteger> pending;
+
+        /**
+         * Places for objects between the discover and the report stages.
+         */
+        private final Semaphore places;
+
+        /**
+         * Objects waiting to be compiled.
+         */
+        private final Pipeline.Queue compiling;
+
+        /**
+         * Analyses waiting for a thread.
+         */
+        private final Pipeline.Queue analyzing;
+
+        /**
+         * Objects waiting to be reported.
+         */
+        private final Pipeline.Queue reporting;
+
+        /**
+         * Analyses handed over to the analyze stage and not finished yet,
+         * by their numbers in the order of submission.
+         */
+        private final Map<Long, Future<?>> running;
+
+        /**
+         * The report is not needed anymore.
+         */
+        private final AtomicBoolean stopped;
+
+        /**
+         * Ctor.
+         * @param locs Locators of objects
+         * @param anas Analyses of every object
+         * @param compiler Compile the object
+         * @param est Cost of the analysis of the object
+         * @param job Run the analysis of the object
+         * @checkstyle ParameterNumberCheck (10 lines)
+         */
+        Flow(final List<String> locs, final List<Analysis> anas,
+            final Func<String, ?> compiler, final BiFunc<Analysis, String, Double> est,
+            final BiFunc<Analysis, String, Iterable<Result>> job) {
+            this.locators = locs;
+            this.analyses = anas;
+            this.xmir = compiler;
+            this.cost = est;
+            this.run = job;
+            this.futures = new ArrayList<>(locs.size());
+            this.pending = new ArrayList<>(locs.size());
+            for (int obj = 0; obj < locs.size(); ++obj) {
+                final List<CompletableFuture<Iterable<Result>>> all =
+                    new ArrayList<>(anas.size());
+                for (int idx = 0; idx < anas.size(); ++idx) {
+                    all.add(new CompletableFuture<>());
+                }
+                this.futures.add(all);
+                this.pending.add(new AtomicInteger(anas.size()));
+            }
+            this.places = new Semaphore(Pipeline.this.window);
+            this.compiling = new Pipeline.Queue();
+            this.analyzing = new Pipeline.Queue();
+            this.reporting = new Pipeline.Queue();
+            this.running = new ConcurrentHashMap<>(0);
+            this.stopped = new AtomicBoolean(false);
+        }
+
+        /**
+         * The discover stage: hand objects over to the compile stage,
+         * one by one, when there are places for them.
+         */
+        void feed() {
+            for (int obj = 0; obj < this.locators.size() && !this.stopped.get(); ++obj) {
+                try (Probe.Span span = Pipeline.this.probe.start(
+                    "stage/discover", this.locators.get(obj)
+                )) {
+                    span.with("queue", this.locators.size() - obj);
+                    this.places.acquire();
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                final int num = obj;
+                this.compiling.put();
+                Pipeline.this.compile.execute(() -> this.compile(num));
+            }
+        }
+
+        /**
+         * The compile stage: compile the object and hand its analyses
+         * over to the analyze stage, with their costs.
+         * @param obj The number of the object
+         */
+        @SuppressWarnings("PMD.AvoidCatchingGenericException")
+        void compile(final int obj) {
+            final String locator = this.locators.get(obj);
+            final double[] costs = new double[this.analyses.size()];
+            try (Probe.Span span = Pipeline.this.probe.start("stage/compile", locator)) {
+                span.with("queue", this.compiling.take());
+                if (!this.stopped.get()) {
+                    try {
+                        this.xmir.apply(locator);
+                    // @checkstyle IllegalCatchCheck (1 line)
+                    } catch (final Exception ex) {
+                        Logger.debug(this, "%s is not compiled: %s", locator, ex.getMessage());
+                    }
+                    for (int idx = 0; idx < costs.length; ++idx) {
+                        try {
+                            costs[idx] = this.cost.apply(this.analyses.get(idx), locator);
+                        // @checkstyle IllegalCatchCheck (1 line)
+                        } catch (final Exception ex) {
+                            costs[idx] = 0.0;
+                        }
+                    }
+                }
+            }
+            for (int idx = 0; idx < costs.length; ++idx) {
+                final int ana = idx;
+                final long num = Pipeline.this.submitted.incrementAndGet();
+                final Pipeline.Task task = new Pipeline.Task(
+                    costs[idx], num,
+                    () -> {
+                        try {
+                            this.analyze(obj, ana);
+                        } finally {
+                            this.running.remove(num);
+                        }
+                    }
+                );
+                this.analyzing.put();
+                this.running.put(num, task);
+                try {
+                    Pipeline.this.analyze.execute(task);
+                // @checkstyle IllegalCatchCheck (1 line)
+                } catch (final RuntimeException ex) {
+                    this.running.remove(num);
+                    this.analyzing.take();
+                    this.futures.get(obj).get(idx).completeExceptionally(ex);
+                }
+                if (this.stopped.get()) {
+                    task.cancel(true);
+                }
+            }
+        }
+
+        /**
+         * The analyze stage: run the analysis of the object.
+         * @param obj The number of the object
+         * @param ana The number of the analysis
+         */
+        @SuppressWarnings("PMD.AvoidCatchingGenericException")
+        void analyze(final int obj, final int ana) {
+            final String locator = this.locators.get(obj);
+            Iterable<Result> results = null;
+            Exception error = null;
+            try (Probe.Span span = Pipeline.this.probe.start("stage/analyze", locator)) {
+                span.with("queue", this.analyzing.take());
+                if (this.stopped.get()) {
+                    error = new CancellationException("The report is closed");
+                } else {
+                    results = new ListOf<>(this.run.apply(this.analyses.get(ana), locator));
+                }
+            // @checkstyle IllegalCatchCheck (1 line)
+            } catch (final Exception ex) {
+                error = ex;
+            }
+            if (this.pending.get(obj).decrementAndGet() == 0) {
+                this.reporting.put();
+            }
+            if (error == null) {
+                this.futures.get(obj).get(ana).complete(results);
+            } else {
+                this.futures.get(obj).get(ana).completeExceptionally(error);
+            }
+        }
+
+        /**
+         * The report stage: wait for the results of all analyses of
+         * the object and free its place.
+         * @param obj The number of the object
+         * @return Results
+         */
+        List<Result> report(final int obj) {
+            final List<Result> results = new ArrayList<>(0);
+            try (Probe.Span span = Pipeline.this.probe.start(
+                "stage/report", this.locators.get(obj)
+            )) {
+                for (int ana = 0; ana < this.analyses.size(); ++ana) {
+                    for (final Result res : this.done(obj, ana)) {
+                        results.add(res);
+                    }
+                }
+                span.with("queue", this.reporting.take());
+            }
+            this.places.release();
+            return results;
+        }
+
+        /**
+         * Stop handing over objects, don't start the analyses, which
+         * wait for a thread, and interrupt the running ones.
+         */
+        void stop() {
+            this.stopped.set(true);
+            for (final Future<?> task : this.running.values()) {
+                task.cancel(true);
+            }
+        }
+
+        /**
+         * Stop and fail all analyses, which are not finished.
+         */
+        void cancel() {
+            this.stop();
+            for (final List<CompletableFuture<Iterable<Result>>> all : this.futures) {
+                for (final CompletableFuture<Iterable<Result>> future : all) {
+                    future.completeExceptionally(
+                        new CancellationException("The pipeline is closed")
+                    );
+                }
+            }
+        }
+
+        /**
+         * Wait for the results of the analysis of the object.
+         * @param obj The number of the object
+         * @param ana The number of the analysis
+         * @return Results, or the failure of the analysis
+         */
+        private Iterable<Result> done(final int obj, final int ana) {
+            Iterable<Result> results;
+            try {
+                results = this.futures.get(obj).get(ana).join();
+            } catch (final CompletionException ex) {
+                results = this.failed(obj, ana, ex.getCause());
+            } catch (final CancellationException ex) {
+                results = this.failed(obj, ana, ex);
+            }
+            return results;
+        }
+
+        /**
+         * The failure of the analysis of the object.
+         * @param obj The number of the object
+         * @param ana The number of the analysis
+         * @param error Why it failed
+         * @return Results
+         */
+        private Iterable<Result> failed(final int obj, final int ana, final Throwable error) {
+            final Class<? extends Analysis> type = this.analyses.get(ana).getClass();
+            return new ListOf<Result>(
+                new Result.Failed(type, error, type.getName(), this.locators.get(obj))
+            );
+        }
+    }
+}
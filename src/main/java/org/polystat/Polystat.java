@@ -25,22 +25,31 @@ package org.polystat;
 
 import com.jcabi.log.Logger;
 import com.jcabi.manifests.Manifests;
-import com.jcabi.xml.XML;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.function.Supplier;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.cactoos.Func;
-import org.cactoos.io.OutputTo;
+import org.cactoos.bytes.BytesOf;
 import org.cactoos.io.Stdin;
-import org.cactoos.io.TeeInput;
+import org.cactoos.iterable.Filtered;
 import org.cactoos.list.ListOf;
-import org.cactoos.scalar.LengthOf;
 import picocli.CommandLine;
 import picocli.CommandLine.ArgGroup;
 
@@ -55,20 +64,18 @@ import picocli.CommandLine.ArgGroup;
  */
 @CommandLine.Command(
     name = "polystat",
-    helpCommand = true,
     description = "Read our README in GitHub",
     mixinStandardHelpOptions = true,
-    versionProvider = Polystat.Version.class
+    versionProvider = Polystat.Version.class,
+    subcommands = Cache.class
 )
 public final class Polystat implements Callable<Integer> {
 
     /**
-     * Analyzers.
+     * How many results, and how many of their messages, to keep on the
+     * heap, before spilling them to the temp directory.
      */
-    private static final Analysis[] ALL = {
-        new AnFaR(),
-        new AnOdin(),
-    };
+    private static final int HOT = 10_000;
 
     /**
      * Either "include" list or "exclude" list.
@@ -81,12 +88,23 @@ public final class Polystat implements Callable<Integer> {
      */
     @CommandLine.Option(
         names = "--files",
-        description = "The directory with EO files."
+        description = "The directory, .zip or .jar file with EO files."
     )
     private Path source;
 
     /**
-     * Output directoty. If not specified, defaults to a temporary directory.
+     * Format of the standard input, when sources are read from it.
+     */
+    @CommandLine.Option(
+        names = "--stdin-format",
+        description = "The format of stdin: eo (one object, test.eo), tar or zip",
+        defaultValue = "eo"
+    )
+    private String format;
+
+    /**
+     * Output directoty. If not specified, defaults to a directory of
+     * the sources in the shared {@link Workspace}.
      */
     @CommandLine.Option(
         names = "--tmp",
@@ -95,13 +113,195 @@ public final class Polystat implements Callable<Integer> {
     private Path temp;
 
     /**
-     * Output directoty.
+     * Maximum size of the temp directory.
+     */
+    @CommandLine.Option(
+        names = "--cache-size",
+        description = "The limit of the size of the temp directory, like 512m or 2g",
+        defaultValue = "1g"
+    )
+    private String cache;
+
+    /**
+     * Either SARIF or NDJSON, or the console if none.
+     */
+    @ArgGroup(exclusive = true)
+    private Json json;
+
+    /**
+     * Output file. If not specified, the report goes to standard output.
+     */
+    @CommandLine.Option(
+        names = "--output",
+        description = "The file to write the report to, instead of stdout."
+    )
+    private Path output;
+
+    /**
+     * SARIF report of a previous run, with findings to skip.
+     */
+    @CommandLine.Option(
+        names = "--baseline",
+        description = "The SARIF file with findings, which must not be reported again"
+    )
+    private Path baseline;
+
+    /**
+     * Git revision, to analyze only objects changed since it.
+     */
+    @CommandLine.Option(
+        names = "--changed-since",
+        description = "Analyze only objects changed since this git revision, and their users"
+    )
+    private String since;
+
+    /**
+     * File to save the metrics of the phases to.
+     */
+    @CommandLine.Option(
+        names = "--metrics",
+        description = "The file to save time and memory spent by phases to (.json or .prom)"
+    )
+    private Path metrics;
+
+    /**
+     * File to save the Java Flight Recorder recording to.
+     */
+    @CommandLine.Option(
+        names = "--jfr",
+        description = "The file to save a Java Flight Recorder recording of the run to"
+    )
+    private Path jfr;
+
+    /**
+     * File to save the timeline of the run to.
+     */
+    @CommandLine.Option(
+        names = "--trace",
+        description = "The file to save a timeline of the run to, in Trace Event Format"
+    )
+    private Path trace;
+
+    /**
+     * How many analyses run at the same time.
+     */
+    @CommandLine.Option(
+        names = "--threads",
+        description = "How many analyses to run in parallel, the most expensive first",
+        defaultValue = "1"
+    )
+    private int threads;
+
+    /**
+     * The shard of objects to analyze, like "2/5".
      */
     @CommandLine.Option(
-        names = "--sarif",
-        description = "Print JSON output in SARIF 2.0 format"
+        names = "--shard",
+        description = "Analyze only the K-th of N shards, as K/N, balanced by size of sources"
     )
-    private boolean sarif;
+    private String shard;
+
+    /**
+     * Stop on the first finding.
+     */
+    @CommandLine.Option(
+        names = "--fail-fast",
+        description = "Stop on the first finding, report it and exit with code 1"
+    )
+    private boolean fast;
+
+    /**
+     * How many findings are enough to stop.
+     */
+    @CommandLine.Option(
+        names = "--max-findings",
+        description = "Stop after so many findings, report them and exit with code 1"
+    )
+    private int findings;
+
+    /**
+     * How many child JVMs run analyses, none if zero.
+     */
+    @CommandLine.Option(
+        names = "--workers",
+        description = "How many child JVMs to run analyses in, isolated from each other",
+        defaultValue = "0"
+    )
+    private int workers;
+
+    /**
+     * Maximum heap of every worker.
+     */
+    @CommandLine.Option(
+        names = "--worker-heap",
+        description = "Maximum heap of every worker, like 512m",
+        defaultValue = "512m"
+    )
+    private String heap;
+
+    /**
+     * How many jobs a worker runs before it is replaced.
+     */
+    @CommandLine.Option(
+        names = "--worker-jobs",
+        description = "How many analyses a worker runs before it is replaced",
+        defaultValue = "100"
+    )
+    private int jobs;
+
+    /**
+     * How long an analysis may take in a worker, in seconds.
+     */
+    @CommandLine.Option(
+        names = "--worker-timeout",
+        description = "Seconds an analysis may take in a worker, before the worker is killed",
+        defaultValue = "600"
+    )
+    private int timeout;
+
+    /**
+     * Fraction of the heap, which analyses may take together.
+     */
+    @CommandLine.Option(
+        names = "--max-heap-fraction",
+        description = "Fraction of the heap for analyses running together, estimated by XMIR size",
+        defaultValue = "0.75"
+    )
+    private double fraction;
+
+    /**
+     * Keep the full XMIR, with the listing, errors and sheets.
+     */
+    @CommandLine.Option(
+        names = "--keep-full-xmir",
+        description = "Save the full XMIR of every object to .full.xml in --tmp, for debugging"
+    )
+    private boolean full;
+
+    /**
+     * Skip analyses, which are in the journal already.
+     */
+    @CommandLine.Option(
+        names = "--resume",
+        description = "Continue the previous run in the same --tmp, skipping analyses it finished"
+    )
+    private boolean resume;
+
+    /**
+     * When to flush the journal to the disk.
+     */
+    @CommandLine.Option(
+        names = "--journal-fsync",
+        description = "When to flush the journal to the disk: always, never, or every N analyses",
+        defaultValue = "100"
+    )
+    private String fsync;
+
+    /**
+     * The command, to report wrong parameters.
+     */
+    @CommandLine.Spec
+    private CommandLine.Model.CommandSpec spec;
 
     /**
      * Main entrance for Java command line.
@@ -114,101 +314,486 @@ public final class Polystat implements Callable<Integer> {
         );
         confargs.addAll(new ListOf<>(cmdargs));
         final String[] args = confargs.toArray(new String[0]);
-        new CommandLine(new Polystat()).execute(args);
+        System.exit(new CommandLine(new Polystat()).execute(args));
     }
 
     @Override
     public Integer call() throws Exception {
-        final Path tempdir;
-        if (this.temp == null) {
-            tempdir = Files.createTempDirectory("polystat-temp");
+        this.validate();
+        final Workspace.Lock lock = this.tempdir();
+        try {
+            try (Workspace.Lock held = lock) {
+                return this.run(held.path());
+            }
+        } finally {
+            this.tidy(lock.path());
+        }
+    }
+
+    /**
+     * Reject numbers of threads and workers, which can't run anything,
+     * limits and policies out of their ranges, a shard, which is not
+     * like K/N, and a JFR recording in a JVM without Java Flight Recorder.
+     */
+    private void validate() {
+        if (this.threads < 1) {
+            throw new CommandLine.ParameterException(
+                this.spec.commandLine(),
+                String.format("--threads must be 1 or more, but it is %d", this.threads)
+            );
+        }
+        if (this.workers < 0) {
+            throw new CommandLine.ParameterException(
+                this.spec.commandLine(),
+                String.format(
+                    "--workers must be 0, to run none, or more, but it is %d",
+                    this.workers
+                )
+            );
+        }
+        if (this.jobs < 1) {
+            throw new CommandLine.ParameterException(
+                this.spec.commandLine(),
+                String.format("--worker-jobs must be 1 or more, but it is %d", this.jobs)
+            );
+        }
+        if (this.timeout < 1) {
+            throw new CommandLine.ParameterException(
+                this.spec.commandLine(),
+                String.format("--worker-timeout must be 1 or more, but it is %d", this.timeout)
+            );
+        }
+        if (this.findings < 0) {
+            throw new CommandLine.ParameterException(
+                this.spec.commandLine(),
+                String.format(
+                    "--max-findings must be 0, for no limit, or more, but it is %d",
+                    this.findings
+                )
+            );
+        }
+        try {
+            new Admission(this.fraction);
+        } catch (final IllegalArgumentException ex) {
+            throw new CommandLine.ParameterException(
+                this.spec.commandLine(),
+                String.format("--max-heap-fraction is wrong: %s", ex.getMessage()),
+                ex
+            );
+        }
+        try {
+            Journal.every(this.fsync);
+        } catch (final IllegalArgumentException ex) {
+            throw new CommandLine.ParameterException(
+                this.spec.commandLine(),
+                String.format("--journal-fsync is wrong: %s", ex.getMessage()),
+                ex
+            );
+        }
+        if (this.jfr != null) {
+            try {
+                Class.forName("jdk.jfr.Recording");
+            } catch (final ClassNotFoundException ex) {
+                throw new CommandLine.ParameterException(
+                    this.spec.commandLine(),
+                    "--jfr needs Java Flight Recorder, which is in Java 11, or 8u262 and newer",
+                    ex
+                );
+            }
+        }
+        if (this.shard != null) {
+            try {
+                new Shard(this.shard);
+            } catch (final IllegalArgumentException ex) {
+                throw new CommandLine.ParameterException(
+                    this.spec.commandLine(),
+                    String.format("--shard is wrong: %s", ex.getMessage()),
+                    ex
+                );
+            }
+        }
+    }
+
+    /**
+     * Analyze the sources and print the report, then save the metrics,
+     * the trace and the JFR recording, even if the analysis fails.
+     * @param tempdir The temp directory
+     * @return Exit code
+     * @throws Exception If fails
+     */
+    private int run(final Path tempdir) throws Exception {
+        final List<Probe> probes = new LinkedList<>();
+        final int exit;
+        try (Closeable phases = this.phases(probes);
+            Closeable recording = this.recording(probes);
+            Closeable timeline = this.timeline(probes)) {
+            exit = this.run(tempdir, new Probe.Joined(probes));
+        }
+        return exit;
+    }
+
+    /**
+     * Analyze the sources and print the report, with the probe.
+     * @param tempdir The temp directory
+     * @param probe The probe
+     * @return Exit code
+     * @throws Exception If fails
+     */
+    private int run(final Path tempdir, final Probe probe) throws Exception {
+        int exit = 0;
+        try (Sources sources = this.sources();
+            PolystatEngine engine = new PolystatEngine(
+                tempdir, this.threads, this.workers, this.heap, this.jobs,
+                Duration.ofSeconds(this.timeout), this.fraction, this.full, probe
+            );
+            Store store = new Store(
+                Files.createTempFile(
+                    Files.createDirectories(tempdir), "results", ".bin"
+                ),
+                Polystat.HOT
+            );
+            Session session = engine.session(
+                sources, tempdir,
+                Optional.of(
+                    new Journal(tempdir.resolve("journal.bin"), this.fsync, this.resume)
+                )
+            )) {
+            Collection<String> targets = new LinkedList<>();
+            final Collection<String> skipped = new LinkedList<>();
+            try (Probe.Span span = probe.start("discover", "")) {
+                final Set<String> scope = this.scope(sources);
+                for (final String locator : session.locators()) {
+                    if (scope.contains(locator.substring(locator.indexOf('.') + 1))) {
+                        targets.add(locator);
+                    } else {
+                        skipped.add(locator);
+                    }
+                }
+                if (this.shard != null) {
+                    final Collection<String> mine =
+                        new Shard(this.shard).select(targets, session.sizes());
+                    for (final String locator : targets) {
+                        if (!mine.contains(locator)) {
+                            skipped.add(locator);
+                        }
+                    }
+                    targets = mine;
+                }
+                span.with("objects", targets.size()).with("skipped", skipped.size());
+            }
+            try (Stream<Result> results = session.analyze(targets)) {
+                final Capped errors = new Capped(
+                    new Filtered<>(this.filter(), results::iterator),
+                    this.cap(),
+                    results::close
+                );
+                final Report out;
+                if (this.ndjson()) {
+                    out = new AsNdjson(errors, skipped);
+                } else if (this.sarif()) {
+                    out = new AsSarif(store.addAll(errors), skipped);
+                } else {
+                    out = new AsConsole(errors, skipped);
+                }
+                try (Probe.Span span = probe.start("report", "")) {
+                    this.print(out);
+                }
+                if (errors.reached()) {
+                    exit = 1;
+                }
+            }
+        }
+        return exit;
+    }
+
+    /**
+     * Collect the metrics of phases, if asked.
+     * @param probes Probes, to add the one of the metrics to
+     * @return Saves the metrics, when closed
+     */
+    private Closeable phases(final List<Probe> probes) {
+        final Closeable done;
+        if (this.metrics == null) {
+            done = () -> { };
         } else {
-            tempdir = this.temp;
+            final Metrics phases = new Metrics();
+            probes.add(phases);
+            done = () -> {
+                phases.save(this.metrics);
+                Logger.info(this, "The metrics saved to %s", this.metrics);
+            };
         }
-        final Path sources;
-        if (this.source == null) {
-            sources = readCodeFromStdin();
+        return done;
+    }
+
+    /**
+     * Start the JFR recording, if asked.
+     * @param probes Probes, to add the one of the recording to
+     * @return Stops and saves the recording, when closed
+     * @throws IOException If fails to start it
+     */
+    private Closeable recording(final List<Probe> probes) throws IOException {
+        final Closeable done;
+        if (this.jfr == null) {
+            done = () -> { };
         } else {
-            sources = this.source;
+            final Probe flight = Polystat.flight(this.jfr);
+            probes.add(flight);
+            done = () -> {
+                ((Closeable) flight).close();
+                Logger.info(this, "The JFR recording saved to %s", this.jfr);
+            };
         }
-        final Iterable<Result> errors =
-            this.scan(sources, tempdir);
-        final Supplier<String> out;
-        if (this.sarif) {
-            out = new AsSarif(errors);
+        return done;
+    }
+
+    /**
+     * Write the trace of phases, if asked.
+     * @param probes Probes, to add the one of the trace to
+     * @return Saves the trace, when closed
+     */
+    private Closeable timeline(final List<Probe> probes) {
+        final Closeable done;
+        if (this.trace == null) {
+            done = () -> { };
         } else {
-            out = new AsConsole(errors);
+            final Trace timeline = new Trace(this.trace);
+            probes.add(timeline);
+            done = () -> {
+                timeline.close();
+                Logger.info(this, "The trace saved to %s", this.trace);
+            };
         }
-        Logger.info(this, "%s\n", out.get());
-        return 0;
+        return done;
     }
 
     /**
-     * Scan.
-     * @param src Path with sources
-     * @param tmp Path with temp files
-     * @return Errors
+     * The temp directory, locked for the run: "--tmp", when the other
+     * run, which uses it, if any, is over, or the directory of the
+     * sources in the shared workspace, or a new one in it, when the
+     * directory of the sources is used by another run, or for
+     * the standard input, since its code is new every time.
+     * @return The lock of the directory
+     * @throws IOException If fails
      */
-    @SuppressWarnings("PMD.AvoidCatchingGenericException")
-    private Iterable<Result> scan(final Path src, final Path tmp) {
-        final Func<String, XML> xmir = new Program(src, tmp);
-        final Collection<Result> errors = new ArrayList<>(Polystat.ALL.length);
-        for (final Analysis analysis : Polystat.ALL) {
-            try {
-                errors.addAll(new ListOf<>(analysis.errors(xmir, "\\Phi.test")));
-            // @checkstyle IllegalCatchCheck (1 line)
-            } catch (final Exception ex) {
-                errors.add(
-                    new Result.Failed(
-                        analysis.getClass(),
-                        ex,
-                        analysis.getClass().getName()
-                    )
+    private Workspace.Lock tempdir() throws IOException {
+        Optional<Workspace.Lock> lock = Optional.empty();
+        if (this.temp != null) {
+            lock = Workspace.lock(this.temp, true);
+            if (!lock.isPresent()) {
+                throw new IllegalStateException(
+                    String.format("The --tmp %s is used by another run", this.temp)
                 );
             }
+        } else if (this.source != null) {
+            final Path dir = new Workspace(Workspace.root(), this.cache).of(this.source);
+            lock = Workspace.lock(dir, false);
+            if (!lock.isPresent()) {
+                Logger.info(
+                    this, "%s is used by another run, a new directory is used instead", dir
+                );
+            }
+        }
+        if (!lock.isPresent()) {
+            lock = Workspace.lock(
+                Files.createTempDirectory(Files.createDirectories(Workspace.root()), "run"),
+                false
+            );
+        }
+        return lock.get();
+    }
+
+    /**
+     * Keep the temp directory under the limit of "--cache-size", and
+     * delete the new one of this run, if it was made.
+     * @param tempdir The temp directory
+     * @throws IOException If fails
+     */
+    private void tidy(final Path tempdir) throws IOException {
+        final Workspace shared = new Workspace(Workspace.root(), this.cache);
+        if (this.temp != null) {
+            new Workspace(this.temp, this.cache).prune();
+        } else if (this.source != null && tempdir.equals(shared.of(this.source))) {
+            shared.prune();
+        } else {
+            new Workspace(tempdir, 0L).clear();
+        }
+    }
+
+    /**
+     * Sources: from the directory or the ZIP file in "--files", or from
+     * the standard input, in the format of "--stdin-format".
+     * @return Sources
+     * @throws Exception If fails
+     */
+    private Sources sources() throws Exception {
+        final Sources src;
+        if (this.source != null && Files.isRegularFile(this.source)) {
+            src = new Sources.Archive(this.source);
+        } else if (this.source != null) {
+            src = new Sources.Dir(this.source);
+        } else if ("tar".equals(this.format)) {
+            src = new Sources.Tar(System.in);
+        } else if ("zip".equals(this.format)) {
+            src = new Sources.Zip(System.in);
+        } else if ("eo".equals(this.format)) {
+            src = new Sources.Memory(
+                Collections.singletonMap("test", new BytesOf(new Stdin()).asBytes())
+            );
+        } else {
+            throw new IllegalArgumentException(
+                String.format("Unknown --stdin-format \"%s\", use eo, tar or zip", this.format)
+            );
+        }
+        return src;
+    }
+
+    /**
+     * Names of the objects to analyze: all of them, or, with
+     * "--changed-since", only changed ones and their users.
+     * @param sources All sources
+     * @return Names of objects
+     * @throws IOException If fails
+     */
+    private Set<String> scope(final Sources sources) throws IOException {
+        final Set<String> scope;
+        if (this.since == null) {
+            scope = new HashSet<>(sources.names());
+        } else if (this.source == null || !Files.isDirectory(this.source)) {
+            throw new IllegalArgumentException(
+                "--changed-since needs --files with a directory in a git repository"
+            );
+        } else {
+            scope = new Changes(this.source, this.since).affected(sources);
+            Logger.debug(
+                this, "%d objects changed since %s or depend on changed ones",
+                scope.size(), this.since
+            );
+        }
+        return scope;
+    }
+
+    /**
+     * Print the report into the output file or, if it's not specified,
+     * into the standard output, through a buffer.
+     * @param report The report
+     * @throws IOException If fails
+     */
+    private void print(final Report report) throws IOException {
+        if (this.output == null) {
+            final Writer out = new BufferedWriter(
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+            );
+            report.print(out);
+            this.newline(out);
+            out.flush();
+        } else {
+            try (Writer out = Files.newBufferedWriter(this.output)) {
+                report.print(out);
+                this.newline(out);
+            }
+            Logger.info(this, "The report saved to %s", this.output);
         }
-        final Collection<Result> filtered;
+    }
+
+    /**
+     * Finish the report with a line break, unless it is NDJSON,
+     * where every record is already finished with its own one.
+     * @param out Output
+     * @throws IOException If fails
+     */
+    private void newline(final Writer out) throws IOException {
+        if (!this.ndjson()) {
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Which results go to the report: according to the --include and
+     * --exclude lists, and not in the --baseline.
+     * @return TRUE for results to report
+     */
+    private Func<Result, Boolean> filter() {
+        final Func<Result, Boolean> fresh;
+        if (this.baseline == null) {
+            fresh = res -> true;
+        } else {
+            final Baseline known = new Baseline(this.baseline);
+            fresh = res -> res.failure().isPresent()
+                || !res.iterator().hasNext()
+                || !known.contains(new Fingerprint(res));
+        }
+        return res -> this.included(res) && fresh.apply(res);
+    }
+
+    /**
+     * How many findings are enough to stop the analysis.
+     * @return The number of findings
+     */
+    private int cap() {
+        int cap = Integer.MAX_VALUE;
+        if (this.fast) {
+            cap = 1;
+        }
+        if (this.findings > 0) {
+            cap = Math.min(cap, this.findings);
+        }
+        return cap;
+    }
+
+    /**
+     * Is this result included into the report, according to
+     * the --include and --exclude lists?
+     * @param res The result
+     * @return TRUE if included
+     */
+    private boolean included(final Result res) {
+        final boolean inc;
         if (this.inex == null) {
-            filtered = errors;
+            inc = true;
         } else if (this.inex.exclude == null) {
-            filtered = errors.stream().filter(
-                e ->
-                    this.inex.includeList().stream()
-                        .filter(rule -> e.ruleId().equals(rule))
-                        .findAny()
-                        .isPresent()
-            ).collect(Collectors.toList());
+            inc = this.inex.includeList().stream()
+                .anyMatch(rule -> res.ruleId().equals(rule));
         } else {
-            filtered = errors.stream().filter(
-                e ->
-                    this.inex.excludeList().stream()
-                        .filter(rule -> !e.ruleId().equals(rule))
-                        .findAny()
-                        .isPresent()
-            ).collect(Collectors.toList());
+            inc = this.inex.excludeList().stream()
+                .anyMatch(rule -> !res.ruleId().equals(rule));
         }
-        return filtered;
+        return inc;
     }
 
     /**
-     * Reads the EO code from standard input,
-     * creates a temporary directory and
-     * writes the code to a new file in this directory called "test.eo".
-     * @return Path object of "{tmpdir}/test.eo" files.
-     * @throws Exception When IO fails.
-     */
-    private static Path readCodeFromStdin() throws Exception {
-        final Path tmpdir = Files.createTempDirectory("polystat_stdin");
-        final String name = "test.eo";
-        final Path fullpath = tmpdir.resolve(Paths.get(name));
-        final Path tmpfile = Files.createFile(fullpath);
-        new LengthOf(
-            new TeeInput(
-                new Stdin(),
-                new OutputTo(tmpfile)
-            )
-        ).value();
-        return tmpdir;
+     * Whether the report is in SARIF.
+     * @return TRUE if it is
+     */
+    private boolean sarif() {
+        return this.json != null && this.json.sarif;
+    }
+
+    /**
+     * Whether the report is in NDJSON.
+     * @return TRUE if it is
+     */
+    private boolean ndjson() {
+        return this.json != null && this.json.ndjson;
+    }
+
+    /**
+     * The probe, which records the run with JFR, see {@link Flight}.
+     * It is loaded by name, since it's compiled apart from this class.
+     * @param file Where to save the recording
+     * @return The probe, to close when the run is over
+     * @throws IOException If fails to start the recording
+     */
+    private static Probe flight(final Path file) throws IOException {
+        try {
+            return (Probe) Class.forName("org.polystat.Flight")
+                .getDeclaredConstructor(Path.class)
+                .newInstance(file);
+        } catch (final InvocationTargetException ex) {
+            throw new IOException(ex.getCause());
+        } catch (final ReflectiveOperationException | LinkageError ex) {
+            throw new IllegalStateException("Java Flight Recorder is not available", ex);
+        }
     }
 
     /**
@@ -225,6 +810,32 @@ public final class Polystat implements Callable<Integer> {
         }
     }
 
+    /**
+     * Mutually exclusive arguments --sarif and --ndjson.
+     * @since 1.0
+     */
+    private static final class Json {
+        /**
+         * Print JSON output in SARIF.
+         */
+        @CommandLine.Option(
+            names = "--sarif",
+            description = "Print JSON output in SARIF 2.0 format",
+            required = true
+        )
+        private boolean sarif;
+
+        /**
+         * Print newline-delimited JSON, a record per finding, while scanning.
+         */
+        @CommandLine.Option(
+            names = "--ndjson",
+            description = "Print JSON records, one per line, as soon as they are found",
+            required = true
+        )
+        private boolean ndjson;
+    }
+
     /**
      * Mutually exclusive arguments --exclude and --exclude.
      * @since 1.0
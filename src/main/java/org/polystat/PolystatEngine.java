@@ -0,0 +1,452 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import com.jcabi.xml.XML;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.cactoos.BiFunc;
+import org.cactoos.Func;
+import org.cactoos.iterable.Joined;
+import org.cactoos.iterable.Mapped;
+import org.cactoos.list.ListOf;
+
+/**
+ * The engine of Polystat, to run it inside an IDE or a build tool.
+ *
+ * <p>It keeps what is expensive to make for every run: the threads,
+ * the analyses, which are warmed up by the first objects, and
+ * the admission of analyses to the heap. Sources are analyzed in
+ * a {@link Session}, which keeps their XMIR between analyses, so only
+ * changed objects are compiled again. The command line tool,
+ * {@link Polystat}, is a thin wrapper around it:</p>
+ *
+ * <pre> try (PolystatEngine engine = new PolystatEngine(temp, 4);
+ *     Session session = engine.session(Paths.get("src"))) {
+ *     try (Stream&lt;Result&gt; results = session.analyze()) {
+ *         results.forEach(System.out::println);
+ *     }
+ * }</pre>
+ *
+ * <p>The class is thread-safe, sessions may run in parallel and share
+ * the threads of its {@link Pipeline}. The threads are daemons, they
+ * don't keep the JVM of a build tool alive.</p>
+ *
+ * @since 1.0
+ */
+public final class PolystatEngine implements Closeable {
+
+    /**
+     * How many times the memory of an analysis of an object is bigger
+     * than its XMIR on disk: the DOM of it, of its decoratees and the
+     * input of Odin.
+     */
+    private static final long INFLATION = 10L;
+
+    /**
+     * How many objects per thread may be in the {@link Pipeline}
+     * at the same time.
+     */
+    private static final int WINDOW = 4;
+
+    /**
+     * The directory for sessions.
+     */
+    private final Path temp;
+
+    /**
+     * How many analyses run at the same time.
+     */
+    private final int parallel;
+
+    /**
+     * How many child JVMs run analyses of every session, none if zero.
+     */
+    private final int workers;
+
+    /**
+     * Maximum heap of every worker, like "512m".
+     */
+    private final String heap;
+
+    /**
+     * How many jobs a worker runs before it is replaced.
+     */
+    private final int jobs;
+
+    /**
+     * How long a job of a worker may take.
+     */
+    private final Duration deadline;
+
+    /**
+     * Keep the full XMIR of every object.
+     */
+    private final boolean full;
+
+    /**
+     * Probe of the phases.
+     */
+    private final Probe probe;
+
+    /**
+     * Stages of analyses, when they run in parallel.
+     */
+    private final Pipeline pipeline;
+
+    /**
+     * Admission of analyses to the heap.
+     */
+    private final Admission admission;
+
+    /**
+     * Analyses of every object.
+     */
+    private final Collection<Analysis> analyses;
+
+    /**
+     * Ctor.
+     * @param tmp The directory for sessions
+     */
+    public PolystatEngine(final Path tmp) {
+        this(tmp, 1);
+    }
+
+    /**
+     * Ctor.
+     * @param tmp The directory for sessions
+     * @param threads How many analyses run at the same time
+     */
+    public PolystatEngine(final Path tmp, final int threads) {
+        this(
+            tmp, threads, 0, "512m", 100, Duration.ofMinutes(10L), 0.75, false,
+            new Probe.Silent()
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param tmp The directory for sessions
+     * @param threads How many analyses run at the same time
+     * @param children How many child JVMs run analyses, none if zero
+     * @param xmx Maximum heap of every child JVM, like "512m"
+     * @param max How many jobs a child JVM runs before it is replaced
+     * @param limit How long a job of a child JVM may take
+     * @param fraction Fraction of the heap, which analyses may take together
+     * @param keep Keep the full XMIR of every object
+     * @param probe Probe of the phases
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    PolystatEngine(final Path tmp, final int threads, final int children,
+        final String xmx, final int max, final Duration limit, final double fraction,
+        final boolean keep, final Probe probe) {
+        this.temp = tmp;
+        this.parallel = Math.max(threads, children);
+        this.workers = children;
+        this.heap = xmx;
+        this.jobs = max;
+        this.deadline = limit;
+        this.full = keep;
+        this.probe = probe;
+        this.pipeline = new Pipeline(
+            this.parallel, PolystatEngine.WINDOW * this.parallel, probe
+        );
+        this.admission = new Admission(fraction);
+        this.analyses = new ListOf<Analysis>(new AnFaR(), new AnOdin(probe));
+    }
+
+    /**
+     * Start a session with EO files in a directory, or in a .zip
+     * or .jar file.
+     * @param sources The directory or the file
+     * @return The session, to close when not needed anymore
+     * @throws IOException If fails
+     */
+    public Session session(final Path sources) throws IOException {
+        return this.session(PolystatEngine.sources(sources));
+    }
+
+    /**
+     * Start a session with EO files in a directory, or in a .zip
+     * or .jar file, which keeps XMIR and results in the directory
+     * between sessions, so that objects, which didn't change, are
+     * neither compiled nor analyzed again.
+     *
+     * <p>Only one session at a time may use the directory.</p>
+     * @param sources The directory or the file
+     * @param dir The directory for XMIR and results
+     * @return The session, to close when not needed anymore
+     * @throws IOException If fails
+     */
+    public Session session(final Path sources, final Path dir) throws IOException {
+        return this.session(
+            PolystatEngine.sources(sources),
+            Files.createDirectories(dir),
+            Optional.of(new Journal(dir.resolve("results.bin"), "never", true))
+        );
+    }
+
+    /**
+     * Start a session with EO code in memory.
+     * @param sources The code of objects by their names, like "test"
+     * @return The session, to close when not needed anymore
+     * @throws IOException If fails
+     */
+    public Session session(final Map<String, String> sources) throws IOException {
+        final Map<String, byte[]> bytes = new HashMap<>(sources.size());
+        for (final Map.Entry<String, String> ent : sources.entrySet()) {
+            bytes.put(ent.getKey(), ent.getValue().getBytes(StandardCharsets.UTF_8));
+        }
+        return this.session(new Sources.Memory(bytes));
+    }
+
+    /**
+     * Stop all analyses, which are running.
+     */
+    @Override
+    public void close() {
+        this.pipeline.close();
+    }
+
+    /**
+     * Start a session in a new directory of its own.
+     * @param sources EO files
+     * @return The session
+     * @throws IOException If fails
+     */
+    Session session(final Sources sources) throws IOException {
+        return this.session(
+            sources,
+            Files.createTempDirectory(Files.createDirectories(this.temp), "session"),
+            Optional.empty()
+        );
+    }
+
+    /**
+     * Versions of Polystat and of its analyzers, and the analyses it
+     * runs: everything, besides the sources, what results depend on.
+     * @return Text, like "eo=0.22.2 far=0.2.0 ... org.polystat.AnFaR"
+     */
+    String version() {
+        final Properties props = new Properties();
+        try (InputStream input = PolystatEngine.class.getResourceAsStream(
+            "versions.properties"
+        )) {
+            if (input != null) {
+                props.load(input);
+            }
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        final List<String> parts = new LinkedList<>();
+        for (final String name : new TreeSet<>(props.stringPropertyNames())) {
+            parts.add(String.format("%s=%s", name, props.getProperty(name)));
+        }
+        for (final Analysis analysis : this.analyses) {
+            parts.add(analysis.getClass().getName());
+        }
+        return String.join(" ", parts);
+    }
+
+    /**
+     * Start a session.
+     * @param sources EO files
+     * @param dir The directory with XMIR and timings of the session
+     * @param journal Analyses, which are done already, and the new ones
+     * @return The session
+     */
+    Session session(final Sources sources, final Path dir,
+        final Optional<Journal> journal) {
+        final Program xmir = new Program(sources, dir, this.probe, this.full);
+        return new Session(
+            this, sources, xmir, new Timings(dir.resolve("timings.tsv")),
+            new Workers(dir, this.workers, this.heap, this.jobs, this.deadline), journal
+        );
+    }
+
+    /**
+     * The job, which runs an analysis of an object, in this JVM or,
+     * if there are workers, in a child JVM.
+     * @param xmir XMIR of the session
+     * @param children Workers of the session
+     * @param locators Locators of all objects of the session
+     * @return The job
+     */
+    BiFunc<Analysis, String, Iterable<Result>> job(final Program xmir,
+        final Workers children, final Iterable<String> locators) {
+        final BiFunc<Analysis, String, Iterable<Result>> job;
+        if (this.workers > 0) {
+            final Map<String, Exception> broken = this.compile(xmir, locators);
+            job = (analysis, locator) -> {
+                if (broken.containsKey(locator)) {
+                    throw broken.get(locator);
+                }
+                return children.run(analysis.getClass(), locator);
+            };
+        } else {
+            job = (analysis, locator) -> this.admission.admit(
+                PolystatEngine.INFLATION * xmir.bytes(locator),
+                () -> new ListOf<>(analysis.errors(xmir, locator))
+            );
+        }
+        return job;
+    }
+
+    /**
+     * Run all analyses of objects, one by one, or in parallel, when there
+     * are many threads, through the {@link Pipeline}, which compiles
+     * the next objects while the previous ones are analyzed.
+     * @param locators Locators of objects
+     * @param xmir XMIR of objects
+     * @param cost Cost of analyses
+     * @param run Run the analysis of the object
+     * @return Results, in the order of objects and analyses, to close
+     *  if not read to the end
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    Stream<Result> scan(final Collection<String> locators, final Func<String, XML> xmir,
+        final Cost cost, final BiFunc<Analysis, String, Iterable<Result>> run) {
+        final Stream<Result> all;
+        if (this.parallel > 1) {
+            all = this.pipeline.results(
+                new ListOf<>(locators), new ListOf<>(this.analyses), xmir,
+                (analysis, locator) -> cost.of(analysis.getClass(), locator),
+                run
+            );
+        } else {
+            final Iterable<Result> joined = new Joined<>(
+                new Mapped<>(
+                    locator -> new Joined<>(
+                        new Mapped<>(
+                            analysis -> run.apply(analysis, locator),
+                            this.analyses
+                        )
+                    ),
+                    locators
+                )
+            );
+            all = StreamSupport.stream(joined.spliterator(), false);
+        }
+        return all;
+    }
+
+    /**
+     * Run one analysis of the object and time it.
+     * @param analysis The analysis
+     * @param job Analysis of the object, in this JVM or in a worker
+     * @param locator Locator of the object
+     * @return Results
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    List<Result> analyze(final Analysis analysis,
+        final BiFunc<Analysis, String, Iterable<Result>> job, final String locator) {
+        final Instant started = Instant.now();
+        final long start = System.nanoTime();
+        Collection<Result> errors;
+        try (Probe.Span span = this.probe.start(
+            String.format("analysis/%s", analysis.getClass().getSimpleName()),
+            locator
+        )) {
+            try {
+                errors = new ListOf<>(job.apply(analysis, locator));
+            // @checkstyle IllegalCatchCheck (1 line)
+            } catch (final Exception ex) {
+                errors = new ListOf<Result>(
+                    new Result.Failed(
+                        analysis.getClass(),
+                        ex,
+                        analysis.getClass().getName(),
+                        locator
+                    )
+                );
+            }
+            span.with("results", errors.size());
+            for (final Result res : errors) {
+                if (res.failure().isPresent()) {
+                    span.with("failure", res.failure().get().getMessage());
+                }
+            }
+        }
+        final Duration time = Duration.ofNanos(System.nanoTime() - start);
+        return new ListOf<>(
+            new Mapped<>(res -> new Result.Timed(res, started, time), errors)
+        );
+    }
+
+    /**
+     * EO files in a directory, or in a .zip or .jar file.
+     * @param path The directory or the file
+     * @return Sources
+     */
+    private static Sources sources(final Path path) {
+        final Sources src;
+        if (Files.isRegularFile(path)) {
+            src = new Sources.Archive(path);
+        } else {
+            src = new Sources.Dir(path);
+        }
+        return src;
+    }
+
+    /**
+     * Compile all objects, before workers need them.
+     * @param xmir XMIR by locator
+     * @param locators Locators of all objects
+     * @return Errors of compilation by locators
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private Map<String, Exception> compile(final Func<String, XML> xmir,
+        final Iterable<String> locators) {
+        final Map<String, Exception> broken = new HashMap<>(0);
+        try (Probe.Span span = this.probe.start("compile", "")) {
+            for (final String locator : locators) {
+                try {
+                    xmir.apply(locator);
+                // @checkstyle IllegalCatchCheck (1 line)
+                } catch (final Exception ex) {
+                    broken.put(locator, ex);
+                }
+            }
+            span.with("broken", broken.size());
+        }
+        return broken;
+    }
+}
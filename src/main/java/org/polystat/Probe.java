@@ -0,0 +1,132 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedList;
+
+/**
+ * Observer of the phases of a run: compilation of files, analysis
+ * of objects, and so on.
+ *
+ * @since 1.0
+ */
+public interface Probe {
+
+    /**
+     * A phase starts in the current thread.
+     * @param phase Name of the phase, for example "parse"
+     * @param subject What is being processed, for example a file name
+     *  or a locator
+     * @return The span, which must be closed in the same thread,
+     *  when the phase is over
+     */
+    Probe.Span start(String phase, String subject);
+
+    /**
+     * A running phase.
+     *
+     * @since 1.0
+     */
+    interface Span extends AutoCloseable {
+        /**
+         * Attach a detail to the phase, for example the size of a file.
+         * @param key Name of the detail
+         * @param value Its value
+         * @return Itself
+         */
+        default Probe.Span with(final String key, final Object value) {
+            return this;
+        }
+
+        @Override
+        void close();
+    }
+
+    /**
+     * Probe that observes nothing.
+     *
+     * @since 1.0
+     */
+    final class Silent implements Probe {
+        @Override
+        public Probe.Span start(final String phase, final String subject) {
+            return () -> { };
+        }
+    }
+
+    /**
+     * Probe that passes every phase to all other probes.
+     *
+     * @since 1.0
+     */
+    final class Joined implements Probe {
+
+        /**
+         * Probes.
+         */
+        private final Iterable<Probe> probes;
+
+        /**
+         * Ctor.
+         * @param probes Probes
+         */
+        public Joined(final Probe... probes) {
+            this(Arrays.asList(probes));
+        }
+
+        /**
+         * Ctor.
+         * @param probes Probes
+         */
+        public Joined(final Iterable<Probe> probes) {
+            this.probes = probes;
+        }
+
+        @Override
+        public Probe.Span start(final String phase, final String subject) {
+            final Deque<Probe.Span> spans = new LinkedList<>();
+            for (final Probe probe : this.probes) {
+                spans.push(probe.start(phase, subject));
+            }
+            return new Probe.Span() {
+                @Override
+                public Probe.Span with(final String key, final Object value) {
+                    for (final Probe.Span span : spans) {
+                        span.with(key, value);
+                    }
+                    return this;
+                }
+
+                @Override
+                public void close() {
+                    for (final Probe.Span span : spans) {
+                        span.close();
+                    }
+                }
+            };
+        }
+    }
+}
@@ -26,72 +26,244 @@ package org.polystat;
 
 import com.jcabi.xml.XML;
 import com.jcabi.xml.XMLDocument;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.List;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import net.sf.saxon.s9api.XdmNode;
 import org.cactoos.Func;
-import org.cactoos.io.InputOf;
+import org.cactoos.Proc;
 import org.cactoos.io.OutputTo;
-import org.eolang.parser.Spy;
+import org.cactoos.io.TeeInput;
+import org.cactoos.scalar.LengthOf;
+import org.cactoos.scalar.Unchecked;
 import org.eolang.parser.Syntax;
-import org.eolang.parser.Xsline;
 
 /**
  * A collection of all EO files, which are accessible as XMIR elements,
  * by their object locators.
  *
+ * <p>The XMIR of every object is parsed only once and kept, while there
+ * is memory for it; objects are {@link View}s of nodes in it,
+ * not copies. Every time it is parsed, the file is marked as used, so
+ * that {@link Workspace} doesn't delete it first.</p>
+ *
  * @since 1.0
  * @checkstyle AbbreviationAsWordInNameCheck (5 lines)
  */
 public final class Program implements Func<String, XML> {
 
     /**
-     * The directory with EO files.
+     * EO files.
      */
-    private final Path sources;
+    private final Sources sources;
 
     /**
      * The directory with .XML files and maybe other temp.
      */
     private final Path temp;
 
+    /**
+     * Probe of the compilation phases.
+     */
+    private final Probe probe;
+
+    /**
+     * Locks of objects, so that every one is compiled only once,
+     * even when many threads ask for it.
+     */
+    private final Map<String, Object> locks;
+
+    /**
+     * Keep the full XMIR, before {@link Slim}, next to the slim one.
+     */
+    private final boolean full;
+
+    /**
+     * Parsed XMIR of objects, shared by all lookups, until the GC needs
+     * the memory.
+     */
+    private final Map<String, SoftReference<XdmNode>> docs;
+
     /**
      * Ctor.
      * @param src The dir with .eo sources
      * @param tmp Temp dir with .xml files
      */
     public Program(final Path src, final Path tmp) {
+        this(src, tmp, new Probe.Silent());
+    }
+
+    /**
+     * Ctor.
+     * @param src The dir with .eo sources
+     * @param tmp Temp dir with .xml files
+     * @param probe Probe of the phases "parse", "transform" and "load"
+     */
+    public Program(final Path src, final Path tmp, final Probe probe) {
+        this(new Sources.Dir(src), tmp, probe);
+    }
+
+    /**
+     * Ctor.
+     * @param src EO files
+     * @param tmp Temp dir with .xml files
+     * @param probe Probe of the phases "parse", "transform" and "load"
+     */
+    Program(final Sources src, final Path tmp, final Probe probe) {
+        this(src, tmp, probe, false);
+    }
+
+    /**
+     * Ctor.
+     * @param src EO files
+     * @param tmp Temp dir with .xml files
+     * @param probe Probe of the phases "parse", "transform" and "load"
+     * @param keep Keep the full XMIR of every object in .full.xml file
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    Program(final Sources src, final Path tmp, final Probe probe,
+        final boolean keep) {
         this.sources = src;
         this.temp = tmp;
+        this.probe = probe;
+        this.locks = new ConcurrentHashMap<>(0);
+        this.full = keep;
+        this.docs = new ConcurrentHashMap<>(0);
     }
 
     @Override
     public XML apply(final String locator) throws Exception {
         final String[] parts = locator.split("\\.");
-        final String name = parts[1];
+        View obj = new View(this.document(parts[1])).child("program").child("objects");
+        for (int idx = 1; idx < parts.length; ++idx) {
+            obj = obj.child("o", parts[idx]);
+        }
+        return obj;
+    }
+
+    /**
+     * Size of the XMIR of the object, compiled if necessary.
+     * @param locator Locator of the object
+     * @return Bytes
+     * @throws Exception If fails
+     */
+    public long bytes(final String locator) throws Exception {
+        return Files.size(this.compiled(locator.split("\\.")[1]));
+    }
+
+    /**
+     * Parsed XMIR of the object, compiled if necessary.
+     * @param name Name of the object
+     * @return The document
+     * @throws Exception If fails
+     */
+    private XdmNode document(final String name) throws Exception {
+        final Path xml = this.compiled(name);
+        final SoftReference<XdmNode> ref = this.docs.get(name);
+        XdmNode doc = null;
+        if (ref != null) {
+            doc = ref.get();
+        }
+        if (doc == null) {
+            try (Probe.Span span = this.probe.start("load", name)) {
+                span.with("xmirBytes", Files.size(xml));
+                doc = View.parse(xml);
+            }
+            Workspace.touch(xml);
+            this.docs.put(name, new SoftReference<>(doc));
+        }
+        return doc;
+    }
+
+    /**
+     * Compile the object to XMIR, unless it is compiled already.
+     *
+     * <p>The XMIR is slimmed by {@link Slim}, the full one is saved
+     * to {@code .full.xml} file only if asked to keep it. Both are
+     * written to temporary files first, which replace them only when
+     * the compilation succeeds, so that a failure never leaves a part
+     * of a file behind to be taken for XMIR next time.</p>
+     * @param name Name of the object
+     * @return The XMIR file
+     * @throws Exception If fails
+     */
+    private Path compiled(final String name) throws Exception {
         final Path xml = this.temp.resolve(String.format("%s.xml", name));
-        final Path src = this.sources.resolve(String.format("%s.eo", name));
-        if (
-            !xml.toFile().exists()
-                || xml.toFile().lastModified() < src.toFile().lastModified()
-        ) {
-            new Syntax(
-                name,
-                new InputOf(src),
-                new OutputTo(xml)
-            ).parse();
-            new Xsline(
-                new XMLDocument(xml),
-                new OutputTo(xml),
-                new Spy.Verbose()
-            ).pass();
+        final Path whole = this.temp.resolve(String.format("%s.full.xml", name));
+        synchronized (this.locks.computeIfAbsent(name, key -> new Object())) {
+            if (
+                !Files.exists(xml)
+                    || Files.getLastModifiedTime(xml).toMillis() < this.sources.modified(name)
+                    || this.full && !Files.exists(whole)
+            ) {
+                final Path parsed = Program.temporary(xml);
+                try {
+                    try (Probe.Span span = this.probe.start("parse", name)) {
+                        span.with("sourceBytes", this.sources.size(name));
+                        new Syntax(
+                            name,
+                            this.sources.input(name),
+                            new OutputTo(parsed)
+                        ).parse();
+                        span.with("xmirBytes", Files.size(parsed));
+                    }
+                    try (Probe.Span span = this.probe.start("transform", name)) {
+                        final XML after = new Stylesheets().transform(new XMLDocument(parsed));
+                        if (this.full) {
+                            Program.replace(
+                                whole,
+                                file -> new Unchecked<>(
+                                    new LengthOf(new TeeInput(after.toString(), file))
+                                ).value()
+                            );
+                        }
+                        Program.replace(xml, file -> new Slim().pass(after, new OutputTo(file)));
+                        span.with("xmirBytes", Files.size(xml));
+                    }
+                } finally {
+                    Files.deleteIfExists(parsed);
+                }
+                this.docs.remove(name);
+            }
         }
-        XML obj = new XMLDocument(xml).nodes("/program/objects").get(0);
-        for (int idx = 1; idx < parts.length; ++idx) {
-            final List<XML> objs = obj.nodes(
-                String.format("o[@name='%s']", parts[idx])
+        return xml;
+    }
+
+    /**
+     * Write the file through a temporary one, which replaces it at once,
+     * only when it is written completely.
+     * @param file The file
+     * @param write Write to the temporary file
+     * @throws Exception If fails
+     */
+    private static void replace(final Path file, final Proc<Path> write) throws Exception {
+        final Path part = Program.temporary(file);
+        try {
+            write.exec(part);
+            Files.move(
+                part, file,
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE
             );
-            obj = objs.get(0);
+        } finally {
+            Files.deleteIfExists(part);
         }
-        return obj;
+    }
+
+    /**
+     * A new temporary file next to the file, in the same directory,
+     * so that it can be moved to its place at once; it's an XML file
+     * too, so that {@link Workspace} deletes it, if it's left behind.
+     * @param file The file
+     * @return The temporary file
+     * @throws IOException If fails
+     */
+    private static Path temporary(final Path file) throws IOException {
+        return Files.createTempFile(
+            file.getParent(), String.format("%s.", file.getFileName()), ".xml"
+        );
     }
 }
@@ -24,6 +24,8 @@
 
 package org.polystat;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Iterator;
 import java.util.Optional;
 
@@ -52,6 +54,24 @@ public interface Result extends Iterable<String> {
      */
     Optional<? extends Throwable> failure();
 
+    /**
+     * Locator of the analysed object.
+     * @return Locator, for example "\\Phi.foo"
+     */
+    String locator();
+
+    /**
+     * Time spent by the analysis.
+     * @return Duration, zero if unknown
+     */
+    Duration elapsed();
+
+    /**
+     * When the analysis started.
+     * @return Present if known
+     */
+    Optional<Instant> started();
+
     /**
      * Completed analysis result.
      *
@@ -74,6 +94,11 @@ public interface Result extends Iterable<String> {
          */
         private final String ruleid;
 
+        /**
+         * Locator of the analysed object.
+         */
+        private final String object;
+
         /**
          * Ctor.
          * @param type Type.
@@ -84,10 +109,28 @@ public interface Result extends Iterable<String> {
             final Class<? extends Analysis> type,
             final Iterable<String> errors,
             final String ruleid
+        ) {
+            this(type, errors, ruleid, "\\Phi");
+        }
+
+        /**
+         * Ctor.
+         * @param type Type.
+         * @param errors Errors.
+         * @param ruleid ID of the rule that was run.
+         * @param locator Locator of the analysed object.
+         * @checkstyle ParameterNumberCheck (10 lines)
+         */
+        public Completed(
+            final Class<? extends Analysis> type,
+            final Iterable<String> errors,
+            final String ruleid,
+            final String locator
         ) {
             this.type = type;
             this.errors = errors;
             this.ruleid = ruleid;
+            this.object = locator;
         }
 
         @Override
@@ -109,6 +152,21 @@ public interface Result extends Iterable<String> {
         public String ruleId() {
             return this.ruleid;
         }
+
+        @Override
+        public String locator() {
+            return this.object;
+        }
+
+        @Override
+        public Duration elapsed() {
+            return Duration.ZERO;
+        }
+
+        @Override
+        public Optional<Instant> started() {
+            return Optional.empty();
+        }
     }
 
     /**
@@ -133,6 +191,11 @@ public interface Result extends Iterable<String> {
          */
         private final String ruleid;
 
+        /**
+         * Locator of the analysed object.
+         */
+        private final String object;
+
         /**
          * Ctor.
          * @param type Analysis.
@@ -143,10 +206,28 @@ public interface Result extends Iterable<String> {
             final Class<? extends Analysis> type,
             final Throwable error,
             final String ruleid
+        ) {
+            this(type, error, ruleid, "\\Phi");
+        }
+
+        /**
+         * Ctor.
+         * @param type Analysis.
+         * @param error Exception.
+         * @param ruleid ID of the rule that was run.
+         * @param locator Locator of the analysed object.
+         * @checkstyle ParameterNumberCheck (10 lines)
+         */
+        public Failed(
+            final Class<? extends Analysis> type,
+            final Throwable error,
+            final String ruleid,
+            final String locator
         ) {
             this.type = type;
             this.error = error;
             this.ruleid = ruleid;
+            this.object = locator;
         }
 
         @Override
@@ -168,5 +249,90 @@ public interface Result extends Iterable<String> {
         public String ruleId() {
             return this.ruleid;
         }
+
+        @Override
+        public String locator() {
+            return this.object;
+        }
+
+        @Override
+        public Duration elapsed() {
+            return Duration.ZERO;
+        }
+
+        @Override
+        public Optional<Instant> started() {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Result of the analysis, together with the time spent on it.
+     *
+     * @since 1.0
+     */
+    final class Timed implements Result {
+
+        /**
+         * Original result.
+         */
+        private final Result origin;
+
+        /**
+         * When the analysis started.
+         */
+        private final Instant start;
+
+        /**
+         * Time spent.
+         */
+        private final Duration time;
+
+        /**
+         * Ctor.
+         * @param origin Original result.
+         * @param start When the analysis started.
+         * @param time Time spent by the analysis.
+         */
+        public Timed(final Result origin, final Instant start, final Duration time) {
+            this.origin = origin;
+            this.start = start;
+            this.time = time;
+        }
+
+        @Override
+        public Class<? extends Analysis> analysis() {
+            return this.origin.analysis();
+        }
+
+        @Override
+        public String ruleId() {
+            return this.origin.ruleId();
+        }
+
+        @Override
+        public Optional<? extends Throwable> failure() {
+            return this.origin.failure();
+        }
+
+        @Override
+        public String locator() {
+            return this.origin.locator();
+        }
+
+        @Override
+        public Duration elapsed() {
+            return this.time;
+        }
+
+        @Override
+        public Optional<Instant> started() {
+            return Optional.of(this.start);
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return this.origin.iterator();
+        }
     }
 }
@@ -0,0 +1,255 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import com.jcabi.log.Logger;
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.cactoos.BiFunc;
+import org.cactoos.Func;
+import org.cactoos.list.ListOf;
+
+/**
+ * EO files, analyzed by a {@link PolystatEngine}, as many times
+ * as needed.
+ *
+ * <p>The XMIR of objects and the timings of their analyses are kept
+ * in the directory of the session, so the next analysis compiles
+ * only the objects, which were changed, and schedules the others
+ * by how long they took before. If the session has a journal, the
+ * results of objects, which didn't change together with their
+ * decoratees, are taken from it, see {@link Inputs}. Close the session
+ * to save the timings and to stop its workers.</p>
+ *
+ * @since 1.0
+ */
+public final class Session implements Closeable {
+
+    /**
+     * The engine.
+     */
+    private final PolystatEngine engine;
+
+    /**
+     * EO files.
+     */
+    private final Sources sources;
+
+    /**
+     * XMIR of objects.
+     */
+    private final Program xmir;
+
+    /**
+     * Timings of analyses.
+     */
+    private final Timings timings;
+
+    /**
+     * Cost of analyses.
+     */
+    private final Cost cost;
+
+    /**
+     * Child JVMs, which run analyses, if the engine has them.
+     */
+    private final Workers children;
+
+    /**
+     * Analyses, which are done already, and the new ones.
+     */
+    private final Optional<Journal> journal;
+
+    /**
+     * Ctor.
+     * @param eng The engine
+     * @param src EO files
+     * @param program XMIR of objects
+     * @param past Timings of analyses
+     * @param kids Child JVMs, which run analyses
+     * @param done Analyses, which are done already, and the new ones
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    Session(final PolystatEngine eng, final Sources src, final Program program,
+        final Timings past, final Workers kids, final Optional<Journal> done) {
+        this.engine = eng;
+        this.sources = src;
+        this.xmir = program;
+        this.timings = past;
+        this.cost = new Cost(program, past);
+        this.children = kids;
+        this.journal = done;
+    }
+
+    /**
+     * Locators of all objects, like "\\Phi.test".
+     * @return Locators
+     */
+    public List<String> locators() {
+        return new ListOf<>(new Locators(this.sources));
+    }
+
+    /**
+     * Analyze all objects.
+     * @return Results, to close if not read to the end
+     */
+    public Stream<Result> analyze() {
+        return this.analyze(this.locators());
+    }
+
+    /**
+     * Analyze the objects.
+     *
+     * <p>Results come in the order of objects, each as soon as it
+     * is ready. When the stream is closed, the analyses, which are not
+     * started yet, are not started, and the running ones are interrupted,
+     * if there are many threads.</p>
+     * @param locators Locators of objects
+     * @return Results, to close if not read to the end
+     */
+    public Stream<Result> analyze(final Collection<String> locators) {
+        final AtomicBoolean closed = new AtomicBoolean(false);
+        final BiFunc<Analysis, String, Iterable<Result>> job =
+            this.engine.job(this.xmir, this.children, new Locators(this.sources));
+        final Inputs inputs = new Inputs(this.sources, this.engine.version());
+        final BiFunc<Analysis, String, Iterable<Result>> run = (analysis, locator) -> {
+            final Optional<String> key = Session.key(inputs, locator);
+            final Optional<List<Result>> done = this.journal.flatMap(
+                jrnl -> key.flatMap(loc -> jrnl.results(analysis.getClass(), loc))
+            );
+            final List<Result> results;
+            if (done.isPresent()) {
+                results = done.get();
+            } else if (closed.get()) {
+                results = new ListOf<Result>(
+                    new Result.Failed(
+                        analysis.getClass(),
+                        new CancellationException("The analysis was cancelled"),
+                        analysis.getClass().getName(),
+                        locator
+                    )
+                );
+            } else {
+                final long start = System.nanoTime();
+                results = this.engine.analyze(analysis, job, locator);
+                this.record(analysis, locator, Duration.ofNanos(System.nanoTime() - start));
+                if (this.journal.isPresent() && key.isPresent()
+                    && results.stream().noneMatch(res -> res.failure().isPresent())) {
+                    this.journal.get().append(analysis.getClass(), key.get(), results);
+                }
+            }
+            return results;
+        };
+        return this.engine.scan(locators, this.xmir, this.cost, run)
+            .onClose(() -> closed.set(true));
+    }
+
+    /**
+     * Save the timings and stop the workers.
+     * @throws IOException If fails
+     */
+    @Override
+    public void close() throws IOException {
+        try (Sources src = this.sources; Workers kids = this.children;
+            Closeable done = this.journal.<Closeable>map(jrnl -> jrnl).orElse(() -> { })) {
+            this.timings.save();
+        }
+    }
+
+    /**
+     * Cost of objects, by the size of their source code and of their
+     * decoratees, zero if it can't be read; nothing gets compiled.
+     * @return Bytes by locator
+     */
+    Func<String, Double> sizes() {
+        final Inputs inputs = new Inputs(this.sources);
+        return locator -> {
+            double size;
+            try {
+                size = inputs.size(Session.name(locator));
+            } catch (final IOException ex) {
+                Logger.debug(this, "No size of %s: %s", locator, ex.getMessage());
+                size = 0.0;
+            }
+            return size;
+        };
+    }
+
+    /**
+     * The key of the object in the journal: its locator and the digest
+     * of its inputs, so that results of an object, which was changed,
+     * are not taken from it.
+     * @param inputs Inputs of objects
+     * @param locator Locator of the object
+     * @return The key, or empty if the sources of the object can't be read
+     */
+    private static Optional<String> key(final Inputs inputs, final String locator) {
+        Optional<String> key;
+        try {
+            key = Optional.of(
+                String.format(
+                    "%s %s", locator, inputs.digest(Session.name(locator))
+                )
+            );
+        } catch (final IOException ex) {
+            Logger.debug(Session.class, "No digest of %s: %s", locator, ex.getMessage());
+            key = Optional.empty();
+        }
+        return key;
+    }
+
+    /**
+     * Name of the object, which may have dots in it.
+     * @param locator Locator of the object, like "\\Phi.test"
+     * @return The name, like "test"
+     */
+    private static String name(final String locator) {
+        return locator.substring(locator.indexOf('.') + 1);
+    }
+
+    /**
+     * Record the time of the analysis of the object, for
+     * the next runs to schedule it better.
+     * @param analysis The analysis
+     * @param locator Locator of the object
+     * @param time How long it took
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private void record(final Analysis analysis, final String locator,
+        final Duration time) {
+        try {
+            this.timings.record(analysis.getClass(), locator, time, this.cost.units(locator));
+        // @checkstyle IllegalCatchCheck (1 line)
+        } catch (final Exception ex) {
+            Logger.debug(this, "No timing of %s: %s", locator, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.cactoos.Func;
+
+/**
+ * One of N shards of objects, balanced by their costs.
+ *
+ * <p>Objects are taken from the most expensive to the cheapest one and
+ * every one goes to the least loaded shard (longest processing time
+ * first). Costs must not depend on anything but the objects themselves,
+ * for example the past timings of this machine, so that every shard
+ * of the same objects gets the same partition.</p>
+ *
+ * @since 1.0
+ */
+final class Shard {
+
+    /**
+     * Index of this shard, starting from zero.
+     */
+    private final int index;
+
+    /**
+     * How many shards there are.
+     */
+    private final int total;
+
+    /**
+     * Ctor.
+     * @param spec Like "2/5", the second shard of five
+     */
+    Shard(final String spec) {
+        this(Shard.part(spec, 0) - 1, Shard.part(spec, 1));
+    }
+
+    /**
+     * Ctor.
+     * @param idx Index of this shard, starting from zero
+     * @param count How many shards there are
+     */
+    Shard(final int idx, final int count) {
+        if (count < 1 || idx < 0 || idx >= count) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Shard %d of %d is not possible, use K/N, where 1 <= K <= N",
+                    idx + 1, count
+                )
+            );
+        }
+        this.index = idx;
+        this.total = count;
+    }
+
+    /**
+     * Locators of objects of this shard.
+     * @param locators Locators of all objects
+     * @param cost Cost of the object
+     * @return Locators of this shard, in their original order
+     * @throws Exception If the cost can't be estimated
+     */
+    public Collection<String> select(final Collection<String> locators,
+        final Func<String, Double> cost) throws Exception {
+        final Map<String, Double> costs = new HashMap<>(locators.size());
+        for (final String locator : locators) {
+            costs.put(locator, cost.apply(locator));
+        }
+        final List<String> sorted = new ArrayList<>(locators);
+        sorted.sort(
+            Comparator.<String, Double>comparing(costs::get, Comparator.reverseOrder())
+                .thenComparing(Comparator.naturalOrder())
+        );
+        final double[] loads = new double[this.total];
+        final Map<String, Integer> shards = new HashMap<>(locators.size());
+        for (final String locator : sorted) {
+            int least = 0;
+            for (int idx = 1; idx < loads.length; ++idx) {
+                if (loads[idx] < loads[least]) {
+                    least = idx;
+                }
+            }
+            loads[least] += costs.get(locator);
+            shards.put(locator, least);
+        }
+        final Collection<String> mine = new ArrayList<>(locators.size() / this.total + 1);
+        for (final String locator : locators) {
+            if (shards.get(locator) == this.index) {
+                mine.add(locator);
+            }
+        }
+        return mine;
+    }
+
+    /**
+     * Take a number from the spec.
+     * @param spec Like "2/5"
+     * @param pos Position of the number
+     * @return The number
+     */
+    private static int part(final String spec, final int pos) {
+        final String[] parts = spec.split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException(
+                String.format("Shard \"%s\" is not like K/N", spec)
+            );
+        }
+        try {
+            return Integer.parseInt(parts[pos].trim());
+        } catch (final NumberFormatException ex) {
+            throw new IllegalArgumentException(
+                String.format("Shard \"%s\" is not like K/N", spec), ex
+            );
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import com.jcabi.xml.XML;
+import java.io.OutputStream;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import org.cactoos.Output;
+import org.cactoos.io.ResourceOf;
+import org.cactoos.scalar.Solid;
+import org.cactoos.scalar.Unchecked;
+
+/**
+ * XMIR without anything, which analyzers don't read.
+ *
+ * <p>Only the objects are left, see {@code slim.xsl}: the listing of
+ * the source, the errors and the sheets of eo-parser, and the metas
+ * are removed, together with the indentation, so that every load of
+ * the XMIR and every copy of its objects is smaller.</p>
+ *
+ * @since 1.0
+ */
+final class Slim {
+
+    /**
+     * The stylesheet, compiled once per JVM.
+     */
+    private static final Unchecked<Templates> SHEET = new Unchecked<>(
+        new Solid<>(
+            () -> TransformerFactory.newInstance().newTemplates(
+                new StreamSource(
+                    new ResourceOf("org/polystat/slim.xsl").stream(),
+                    "org/polystat/slim.xsl"
+                )
+            )
+        )
+    );
+
+    /**
+     * Slim the XMIR and save it.
+     * @param input Full XMIR, after {@link Stylesheets}
+     * @param target Where to save the result
+     * @throws Exception If fails
+     */
+    public void pass(final XML input, final Output target) throws Exception {
+        try (OutputStream out = target.stream()) {
+            Slim.SHEET.value().newTransformer().transform(
+                new DOMSource(input.node()), new StreamResult(out)
+            );
+        }
+    }
+}
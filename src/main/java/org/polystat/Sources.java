@@ -0,0 +1,619 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import org.cactoos.Input;
+import org.cactoos.io.InputOf;
+import org.cactoos.scalar.Solid;
+import org.cactoos.scalar.Unchecked;
+
+/**
+ * EO files, by names of their objects: "test" for "test.eo".
+ *
+ * <p>Files are found in all subdirectories; if there are two files
+ * with the same name, the first one in alphabetical order of their
+ * paths is used.</p>
+ *
+ * @since 1.0
+ */
+interface Sources extends Closeable {
+
+    /**
+     * Names of all objects, in alphabetical order.
+     * @return Names
+     * @throws IOException If fails
+     */
+    List<String> names() throws IOException;
+
+    /**
+     * Source code of the object.
+     * @param name Name of the object
+     * @return The source code
+     * @throws IOException If fails
+     */
+    Input input(String name) throws IOException;
+
+    /**
+     * Size of the source code.
+     * @param name Name of the object
+     * @return Bytes
+     * @throws IOException If fails
+     */
+    long size(String name) throws IOException;
+
+    /**
+     * When the source code was modified.
+     * @param name Name of the object
+     * @return Milliseconds since epoch
+     * @throws IOException If fails
+     */
+    long modified(String name) throws IOException;
+
+    /**
+     * EO files in a directory, maybe in a ZIP file system.
+     *
+     * @since 1.0
+     */
+    final class Dir implements Sources {
+
+        /**
+         * The directory.
+         */
+        private final Path root;
+
+        /**
+         * Files by names of objects.
+         */
+        private final Unchecked<Map<String, Path>> files;
+
+        /**
+         * Ctor.
+         * @param dir The directory
+         */
+        Dir(final Path dir) {
+            this.root = dir;
+            this.files = new Unchecked<>(new Solid<>(() -> Dir.walk(dir)));
+        }
+
+        @Override
+        public List<String> names() {
+            return new ArrayList<>(this.files.value().keySet());
+        }
+
+        @Override
+        public Input input(final String name) {
+            final Path path = this.path(name);
+            return () -> Files.newInputStream(path);
+        }
+
+        @Override
+        public long size(final String name) throws IOException {
+            return Files.size(this.path(name));
+        }
+
+        @Override
+        public long modified(final String name) throws IOException {
+            return Files.getLastModifiedTime(this.path(name)).toMillis();
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+
+        /**
+         * The file with the object, or where it would be.
+         * @param name Name of the object
+         * @return Path of the file
+         */
+        private Path path(final String name) {
+            return this.files.value().getOrDefault(
+                name, this.root.resolve(String.format("%s.eo", name))
+            );
+        }
+
+        /**
+         * Find all EO files.
+         * @param dir The directory
+         * @return Files by names of objects
+         * @throws IOException If fails
+         */
+        private static Map<String, Path> walk(final Path dir) throws IOException {
+            final Map<String, Path> found = new TreeMap<>();
+            try (Stream<Path> paths = Files.walk(dir)) {
+                for (final Path path : paths.sorted().collect(Collectors.toList())) {
+                    final String name = Sources.object(String.valueOf(path.getFileName()));
+                    if (!name.isEmpty() && Files.isRegularFile(path)) {
+                        found.putIfAbsent(name, path);
+                    }
+                }
+            }
+            return found;
+        }
+    }
+
+    /**
+     * EO files in a ZIP or JAR file, read through the ZIP file system,
+     * without unpacking.
+     *
+     * @since 1.0
+     */
+    final class Archive implements Sources {
+
+        /**
+         * The file system, opened on first use.
+         */
+        private final Unchecked<FileSystem> system;
+
+        /**
+         * The sources in the file system.
+         */
+        private final Unchecked<Sources> origin;
+
+        /**
+         * Ctor.
+         * @param zip The ZIP file
+         */
+        Archive(final Path zip) {
+            this.system = new Unchecked<>(
+                new Solid<>(() -> FileSystems.newFileSystem(zip, (ClassLoader) null))
+            );
+            this.origin = new Unchecked<>(
+                new Solid<>(() -> new Sources.Dir(this.system.value().getPath("/")))
+            );
+        }
+
+        @Override
+        public List<String> names() throws IOException {
+            return this.origin.value().names();
+        }
+
+        @Override
+        public Input input(final String name) throws IOException {
+            return this.origin.value().input(name);
+        }
+
+        @Override
+        public long size(final String name) throws IOException {
+            return this.origin.value().size(name);
+        }
+
+        @Override
+        public long modified(final String name) throws IOException {
+            return this.origin.value().modified(name);
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.system.value().close();
+        }
+    }
+
+    /**
+     * EO files in memory. They are all as new as this object, since
+     * their own times may be anything, like in reproducible archives.
+     *
+     * @since 1.0
+     */
+    final class Memory implements Sources {
+
+        /**
+         * Content of files by names of objects.
+         */
+        private final Map<String, byte[]> files;
+
+        /**
+         * When the files were read.
+         */
+        private final long time;
+
+        /**
+         * Ctor.
+         * @param content Content of files by names of objects
+         */
+        Memory(final Map<String, byte[]> content) {
+            this.files = Collections.unmodifiableMap(new TreeMap<>(content));
+            this.time = System.currentTimeMillis();
+        }
+
+        @Override
+        public List<String> names() {
+            return new ArrayList<>(this.files.keySet());
+        }
+
+        @Override
+        public Input input(final String name) throws IOException {
+            return new InputOf(this.bytes(name));
+        }
+
+        @Override
+        public long size(final String name) throws IOException {
+            return this.bytes(name).length;
+        }
+
+        @Override
+        public long modified(final String name) {
+            return this.time;
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+
+        /**
+         * Content of the file.
+         * @param name Name of the object
+         * @return Bytes
+         * @throws IOException If there is no such object
+         */
+        private byte[] bytes(final String name) throws IOException {
+            final byte[] bytes = this.files.get(name);
+            if (bytes == null) {
+                throw new IOException(
+                    String.format("There is no \"%s.eo\" in the sources", name)
+                );
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * No EO files at all, since all of them are already compiled
+     * to XMIR, by another process, for example, by the parent of
+     * a {@link Worker}. The XMIR is never considered out of date.
+     *
+     * @since 1.0
+     */
+    final class Compiled implements Sources {
+
+        @Override
+        public List<String> names() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Input input(final String name) throws IOException {
+            throw Sources.Compiled.missing(name);
+        }
+
+        @Override
+        public long size(final String name) throws IOException {
+            throw Sources.Compiled.missing(name);
+        }
+
+        @Override
+        public long modified(final String name) {
+            return 0L;
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+
+        /**
+         * The object was not compiled.
+         * @param name Name of the object
+         * @return The error
+         */
+        private static IOException missing(final String name) {
+            return new IOException(
+                String.format("The object \"%s\" was not compiled to XMIR", name)
+            );
+        }
+    }
+
+    /**
+     * EO files in a TAR stream, read into memory on first use.
+     *
+     * @since 1.0
+     */
+    final class Tar implements Sources {
+
+        /**
+         * Size of a TAR block.
+         */
+        private static final int BLOCK = 512;
+
+        /**
+         * Files in memory.
+         */
+        private final Unchecked<Sources> origin;
+
+        /**
+         * Ctor.
+         * @param stream The stream
+         */
+        Tar(final InputStream stream) {
+            this.origin = new Unchecked<>(
+                new Solid<>(() -> new Sources.Memory(Tar.entries(stream)))
+            );
+        }
+
+        @Override
+        public List<String> names() throws IOException {
+            return this.origin.value().names();
+        }
+
+        @Override
+        public Input input(final String name) throws IOException {
+            return this.origin.value().input(name);
+        }
+
+        @Override
+        public long size(final String name) throws IOException {
+            return this.origin.value().size(name);
+        }
+
+        @Override
+        public long modified(final String name) throws IOException {
+            return this.origin.value().modified(name);
+        }
+
+        @Override
+        public void close() {
+            // the stream is not ours
+        }
+
+        /**
+         * Read EO files from the stream, in USTAR format, with GNU long
+         * names and pax paths; other types of entries are skipped.
+         * @param stream The stream
+         * @return Content of files by names of objects
+         * @throws IOException If fails
+         */
+        private static Map<String, byte[]> entries(final InputStream stream)
+            throws IOException {
+            final DataInputStream input = new DataInputStream(stream);
+            final Map<String, byte[]> found = new TreeMap<>();
+            final byte[] header = new byte[Tar.BLOCK];
+            String longname = "";
+            while (true) {
+                input.readFully(header);
+                if (header[0] == 0) {
+                    break;
+                }
+                final int size = (int) Long.parseLong(Tar.field(header, 124, 12), 8);
+                final byte[] data = new byte[size];
+                input.readFully(data);
+                input.readFully(new byte[(Tar.BLOCK - size % Tar.BLOCK) % Tar.BLOCK]);
+                final char type = (char) header[156];
+                if (type == 'L') {
+                    longname = Tar.text(data, 0, data.length);
+                    continue;
+                }
+                if (type == 'x') {
+                    longname = Tar.pax(data);
+                    continue;
+                }
+                String path = longname;
+                longname = "";
+                if (path.isEmpty()) {
+                    path = Tar.field(header, 0, 100);
+                    final String prefix = Tar.field(header, 345, 155);
+                    if (!prefix.isEmpty()) {
+                        path = String.format("%s/%s", prefix, path);
+                    }
+                }
+                if (type == '0' || type == 0) {
+                    found.put(path, data);
+                }
+            }
+            return Sources.objects(found);
+        }
+
+        /**
+         * The path from the records of a pax extended header, each like
+         * "30 path=src/org/very/long/name.eo\n", where the number is
+         * the length of the record in bytes.
+         * @param data Records of the header
+         * @return The path, or empty if there is none
+         * @throws IOException If a record is broken
+         */
+        private static String pax(final byte[] data) throws IOException {
+            String path = "";
+            int pos = 0;
+            while (pos < data.length) {
+                int space = pos;
+                while (space < data.length && data[space] != ' ') {
+                    ++space;
+                }
+                final int len;
+                try {
+                    len = Integer.parseInt(
+                        new String(data, pos, space - pos, StandardCharsets.US_ASCII)
+                    );
+                } catch (final NumberFormatException ex) {
+                    throw new IOException("Broken record of pax header", ex);
+                }
+                if (len <= space - pos + 1 || pos + len > data.length) {
+                    throw new IOException(
+                        String.format("Wrong length %d of pax record", len)
+                    );
+                }
+                final String record = new String(
+                    data, space + 1, pos + len - space - 2, StandardCharsets.UTF_8
+                );
+                if (record.startsWith("path=")) {
+                    path = record.substring("path=".length());
+                }
+                pos += len;
+            }
+            return path;
+        }
+
+        /**
+         * A text field of the header.
+         * @param header The header
+         * @param start Where the field starts
+         * @param len Its length
+         * @return The text, without trailing zeros and spaces
+         */
+        private static String field(final byte[] header, final int start,
+            final int len) {
+            return Tar.text(header, start, len).trim();
+        }
+
+        /**
+         * Text, up to the first zero.
+         * @param bytes Bytes
+         * @param start Where the text starts
+         * @param len Maximum length
+         * @return The text
+         */
+        private static String text(final byte[] bytes, final int start,
+            final int len) {
+            int end = start;
+            while (end < start + len && bytes[end] != 0) {
+                ++end;
+            }
+            return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * EO files in a ZIP stream, read into memory on first use.
+     *
+     * @since 1.0
+     */
+    final class Zip implements Sources {
+
+        /**
+         * Files in memory.
+         */
+        private final Unchecked<Sources> origin;
+
+        /**
+         * Ctor.
+         * @param stream The stream
+         */
+        Zip(final InputStream stream) {
+            this.origin = new Unchecked<>(
+                new Solid<>(() -> new Sources.Memory(Zip.entries(stream)))
+            );
+        }
+
+        @Override
+        public List<String> names() throws IOException {
+            return this.origin.value().names();
+        }
+
+        @Override
+        public Input input(final String name) throws IOException {
+            return this.origin.value().input(name);
+        }
+
+        @Override
+        public long size(final String name) throws IOException {
+            return this.origin.value().size(name);
+        }
+
+        @Override
+        public long modified(final String name) throws IOException {
+            return this.origin.value().modified(name);
+        }
+
+        @Override
+        public void close() {
+            // the stream is not ours
+        }
+
+        /**
+         * Read EO files from the stream.
+         * @param stream The stream
+         * @return Content of files by names of objects
+         * @throws IOException If fails
+         */
+        private static Map<String, byte[]> entries(final InputStream stream)
+            throws IOException {
+            final ZipInputStream zip = new ZipInputStream(stream);
+            final Map<String, byte[]> found = new TreeMap<>();
+            final byte[] buf = new byte[8192];
+            for (ZipEntry entry = zip.getNextEntry(); entry != null;
+                entry = zip.getNextEntry()) {
+                if (!entry.isDirectory()
+                    && !Sources.object(entry.getName()).isEmpty()) {
+                    final ByteArrayOutputStream data = new ByteArrayOutputStream();
+                    for (int len = zip.read(buf); len >= 0; len = zip.read(buf)) {
+                        data.write(buf, 0, len);
+                    }
+                    found.put(entry.getName(), data.toByteArray());
+                }
+            }
+            return Sources.objects(found);
+        }
+    }
+
+    /**
+     * EO files by names of their objects.
+     * @param files Content of files by their paths, in alphabetical order
+     * @return Content of EO files by names of objects
+     */
+    static Map<String, byte[]> objects(final Map<String, byte[]> files) {
+        final Map<String, byte[]> found = new TreeMap<>();
+        for (final Map.Entry<String, byte[]> ent : files.entrySet()) {
+            final String name = Sources.object(ent.getKey());
+            if (!name.isEmpty()) {
+                found.putIfAbsent(name, ent.getValue());
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Name of the object in the file.
+     * @param path Path of the file
+     * @return The name, or empty if it's not an EO file
+     */
+    static String object(final String path) {
+        final String file = path.substring(path.lastIndexOf('/') + 1);
+        final String name;
+        if (file.endsWith(".eo") && file.length() > 3) {
+            name = file.substring(0, file.length() - 3);
+        } else {
+            name = "";
+        }
+        return name;
+    }
+}
@@ -0,0 +1,484 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import org.cactoos.list.ListOf;
+
+/**
+ * Store of results, which keeps the most recent of them on the heap
+ * and spills the older ones to an append-only file.
+ *
+ * <p>Messages of completed results are interned: a message that
+ * is equal to one of recently seen ones is kept on the heap as the same
+ * string, and is written to the file as a reference to its first copy.
+ * Failures are spilled with the messages of their exceptions only,
+ * like {@link Binary} keeps them, since exceptions can't be serialized
+ * reliably.</p>
+ *
+ * <p>Iteration reads the file lazily, record by record, and then goes
+ * through the results on the heap, in the order they were added. The
+ * iterator is {@link Closeable}: it closes the file when it's read
+ * to the end, or when it's closed before that. The class is not
+ * thread-safe and must not be modified while iterated.</p>
+ *
+ * @since 1.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+final class Store implements Iterable<Result>, Closeable {
+
+    /**
+     * How many distinct messages to remember for interning.
+     */
+    private static final int INTERNED = 4096;
+
+    /**
+     * Record of a completed result.
+     */
+    private static final byte COMPLETED = 0;
+
+    /**
+     * Record of a failure.
+     */
+    private static final byte FAILED = 1;
+
+    /**
+     * Message follows inline.
+     */
+    private static final long INLINE = -1L;
+
+    /**
+     * The file to spill to.
+     */
+    private final Path file;
+
+    /**
+     * Maximum number of results, and of their messages, kept on the heap.
+     */
+    private final int capacity;
+
+    /**
+     * Recent results, on the heap.
+     */
+    private final Deque<Result> hot;
+
+    /**
+     * Interned messages.
+     */
+    private final Map<String, String> interned;
+
+    /**
+     * Positions of the messages already written to the file.
+     */
+    private final Map<String, Long> written;
+
+    /**
+     * Output stream of the file, NULL until the first spill.
+     */
+    private DataOutputStream out;
+
+    /**
+     * Total length of the file.
+     */
+    private long length;
+
+    /**
+     * Number of records in the file.
+     */
+    private int spilled;
+
+    /**
+     * Number of messages on the heap.
+     */
+    private int messages;
+
+    /**
+     * Ctor.
+     * @param file The file to spill to, it will be overwritten
+     * @param capacity Maximum number of results, and of their messages,
+     *  kept on the heap
+     */
+    Store(final Path file, final int capacity) {
+        this.file = file;
+        this.capacity = capacity;
+        this.hot = new ArrayDeque<>(0);
+        this.interned = Store.lru();
+        this.written = Store.lru();
+    }
+
+    /**
+     * Add a result to the end of the store.
+     * @param result The result
+     * @return Itself
+     * @throws IOException If fails to spill
+     */
+    public Store add(final Result result) throws IOException {
+        final Result res;
+        if (result.failure().isPresent()) {
+            res = result;
+        } else {
+            final List<String> msgs = new ArrayList<>(1);
+            for (final String msg : result) {
+                msgs.add(this.intern(msg));
+            }
+            res = Store.timed(
+                new Result.Completed(
+                    result.analysis(), msgs, result.ruleId(), result.locator()
+                ),
+                result.started(),
+                result.elapsed()
+            );
+            this.messages += msgs.size();
+        }
+        this.hot.addLast(res);
+        while (this.overflows() && !this.hot.isEmpty()) {
+            this.spill(this.hot.removeFirst());
+        }
+        return this;
+    }
+
+    /**
+     * Add all results to the end of the store.
+     * @param results The results
+     * @return Itself
+     * @throws IOException If fails to spill
+     */
+    public Store addAll(final Iterable<Result> results) throws IOException {
+        for (final Result res : results) {
+            this.add(res);
+        }
+        return this;
+    }
+
+    @Override
+    public Iterator<Result> iterator() {
+        if (this.out != null) {
+            try {
+                this.out.flush();
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        return new Store.Records(this.spilled, this.hot.iterator());
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.out != null) {
+            this.out.close();
+        }
+        Files.deleteIfExists(this.file);
+    }
+
+    /**
+     * Whether the heap keeps more than it should: either too many
+     * messages, or too many results, since even a result without
+     * messages holds its locator and rule.
+     * @return TRUE if some results have to be spilled
+     */
+    private boolean overflows() {
+        return this.messages > this.capacity || this.hot.size() > this.capacity;
+    }
+
+    /**
+     * Intern the message.
+     * @param msg The message
+     * @return The same message, maybe seen before
+     */
+    private String intern(final String msg) {
+        String same = this.interned.get(msg);
+        if (same == null) {
+            this.interned.put(msg, msg);
+            same = msg;
+        }
+        return same;
+    }
+
+    /**
+     * Write the result to the file.
+     * @param res The result
+     * @throws IOException If fails
+     */
+    private void spill(final Result res) throws IOException {
+        if (this.out == null) {
+            this.out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(this.file))
+            );
+        }
+        final Optional<? extends Throwable> failure = res.failure();
+        if (failure.isPresent()) {
+            this.out.writeByte(Store.FAILED);
+        } else {
+            this.out.writeByte(Store.COMPLETED);
+        }
+        this.length += Byte.BYTES;
+        this.text(res.analysis().getName());
+        this.text(res.ruleId());
+        this.text(res.locator());
+        this.out.writeLong(res.started().map(Instant::toEpochMilli).orElse(-1L));
+        this.out.writeLong(res.elapsed().toNanos());
+        this.length += Long.BYTES + Long.BYTES;
+        if (failure.isPresent()) {
+            this.text(Objects.toString(failure.get().getMessage(), ""));
+        } else {
+            final List<String> msgs = new ListOf<>(res);
+            this.out.writeInt(msgs.size());
+            this.length += Integer.BYTES;
+            for (final String msg : msgs) {
+                final Long pos = this.written.get(msg);
+                if (pos == null) {
+                    this.out.writeLong(Store.INLINE);
+                    this.length += Long.BYTES;
+                    this.written.put(msg, this.length);
+                    this.text(msg);
+                } else {
+                    this.out.writeLong(pos);
+                    this.length += Long.BYTES;
+                }
+            }
+            this.messages -= msgs.size();
+        }
+        this.spilled += 1;
+    }
+
+    /**
+     * Write a string to the file, as its length and UTF-8 bytes.
+     * @param str The string
+     * @throws IOException If fails
+     */
+    private void text(final String str) throws IOException {
+        final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        this.out.writeInt(bytes.length);
+        this.out.write(bytes);
+        this.length += Integer.BYTES + bytes.length;
+    }
+
+    /**
+     * Read a string, written by {@link #text(String)}.
+     * @param input The input
+     * @return The string
+     * @throws IOException If fails
+     */
+    private static String text(final DataInput input) throws IOException {
+        final byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Attach the timing to the result, if it is known.
+     * @param res The result
+     * @param started When the analysis started
+     * @param elapsed Time spent on it
+     * @return Result with the same timing
+     */
+    private static Result timed(final Result res, final Optional<Instant> started,
+        final Duration elapsed) {
+        final Result timed;
+        if (started.isPresent()) {
+            timed = new Result.Timed(res, started.get(), elapsed);
+        } else {
+            timed = res;
+        }
+        return timed;
+    }
+
+    /**
+     * Map with a limited number of entries, which evicts the ones
+     * accessed least recently.
+     * @param <T> Type of values
+     * @return The map
+     */
+    private static <T> Map<String, T> lru() {
+        return new LinkedHashMap<String, T>(Store.INTERNED, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, T> eldest) {
+                return this.size() > Store.INTERNED;
+            }
+        };
+    }
+
+    /**
+     * Iterator over the records in the file and then over
+     * the results on the heap.
+     *
+     * @since 1.0
+     */
+    private final class Records implements Iterator<Result>, Closeable {
+
+        /**
+         * Records left in the file.
+         */
+        private int left;
+
+        /**
+         * Results on the heap.
+         */
+        private final Iterator<Result> heap;
+
+        /**
+         * Sequential input of the file, NULL until the first read.
+         */
+        private DataInputStream input;
+
+        /**
+         * Random access to the file, to read referenced messages.
+         */
+        private RandomAccessFile refs;
+
+        /**
+         * Ctor.
+         * @param total Records in the file
+         * @param heap Results on the heap
+         */
+        Records(final int total, final Iterator<Result> heap) {
+            this.left = total;
+            this.heap = heap;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.left > 0 || this.heap.hasNext();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.input != null) {
+                try (RandomAccessFile access = this.refs) {
+                    this.input.close();
+                } finally {
+                    this.input = null;
+                    this.refs = null;
+                }
+            }
+        }
+
+        @Override
+        public Result next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException("No more results in the store");
+            }
+            final Result res;
+            if (this.left > 0) {
+                try {
+                    res = this.read();
+                } catch (final IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                this.left -= 1;
+                if (this.left == 0) {
+                    this.release();
+                }
+            } else {
+                res = this.heap.next();
+            }
+            return res;
+        }
+
+        /**
+         * Read next record from the file.
+         * @return The result
+         * @throws IOException If fails
+         */
+        private Result read() throws IOException {
+            if (this.input == null) {
+                this.input = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(Store.this.file))
+                );
+                this.refs = new RandomAccessFile(Store.this.file.toFile(), "r");
+            }
+            final boolean failed = this.input.readByte() == Store.FAILED;
+            final String type = Store.text(this.input);
+            final String rule = Store.text(this.input);
+            final String locator = Store.text(this.input);
+            final long start = this.input.readLong();
+            final Duration elapsed = Duration.ofNanos(this.input.readLong());
+            final Result res;
+            if (failed) {
+                res = new Result.Failed(
+                    Binary.type(type), new IllegalStateException(Store.text(this.input)),
+                    rule, locator
+                );
+            } else {
+                final int total = this.input.readInt();
+                final List<String> msgs = new ArrayList<>(total);
+                for (int idx = 0; idx < total; ++idx) {
+                    final long pos = this.input.readLong();
+                    if (pos == Store.INLINE) {
+                        msgs.add(Store.text(this.input));
+                    } else {
+                        this.refs.seek(pos);
+                        msgs.add(Store.text(this.refs));
+                    }
+                }
+                res = new Result.Completed(Binary.type(type), msgs, rule, locator);
+            }
+            final Optional<Instant> started;
+            if (start < 0L) {
+                started = Optional.empty();
+            } else {
+                started = Optional.of(Instant.ofEpochMilli(start));
+            }
+            return Store.timed(res, started, elapsed);
+        }
+
+        /**
+         * Close the file.
+         */
+        private void release() {
+            try {
+                this.close();
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import com.jcabi.xml.ClasspathSources;
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import java.io.StringReader;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Templates;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamSource;
+import org.cactoos.Output;
+import org.cactoos.io.ResourceOf;
+import org.cactoos.io.TeeInput;
+import org.cactoos.list.ListOf;
+import org.cactoos.scalar.LengthOf;
+import org.cactoos.scalar.Solid;
+import org.cactoos.scalar.Unchecked;
+import org.cactoos.text.TextOf;
+import org.w3c.dom.Node;
+
+/**
+ * The transformations of XMIR from eo-parser, the same as
+ * {@code org.eolang.parser.Xsline} does them, with stylesheets,
+ * which are compiled only once per JVM.
+ *
+ * <p>{@code Xsline} compiles every stylesheet again for every file,
+ * since {@code XSLDocument} makes a new transformer from the text
+ * of the stylesheet on every transformation, while holding a global
+ * lock. Here, they are compiled to {@link Templates}, which are
+ * thread-safe, and every transformation gets a new cheap transformer
+ * from them.</p>
+ *
+ * @since 1.0
+ */
+final class Stylesheets {
+
+    /**
+     * Stylesheets of eo-parser, in the order of {@code Xsline}.
+     */
+    private static final List<String> SHEETS = new ListOf<>(
+        "org/eolang/parser/errors/not-empty-atoms.xsl",
+        "org/eolang/parser/errors/middle-varargs.xsl",
+        "org/eolang/parser/errors/duplicate-names.xsl",
+        "org/eolang/parser/errors/many-free-attributes.xsl",
+        "org/eolang/parser/errors/broken-aliases.xsl",
+        "org/eolang/parser/errors/duplicate-aliases.xsl",
+        "org/eolang/parser/errors/global-nonames.xsl",
+        "org/eolang/parser/errors/same-line-names.xsl",
+        "org/eolang/parser/errors/self-naming.xsl",
+        "org/eolang/parser/add-refs.xsl",
+        "org/eolang/parser/wrap-method-calls.xsl",
+        "org/eolang/parser/vars-float-up.xsl",
+        "org/eolang/parser/add-refs.xsl",
+        "org/eolang/parser/expand-aliases.xsl",
+        "org/eolang/parser/resolve-aliases.xsl",
+        "org/eolang/parser/add-default-package.xsl",
+        "org/eolang/parser/errors/broken-refs.xsl",
+        "org/eolang/parser/errors/unknown-names.xsl",
+        "org/eolang/parser/errors/noname-attributes.xsl",
+        "org/eolang/parser/errors/duplicate-names.xsl",
+        "org/eolang/parser/errors/unused-aliases.xsl",
+        "org/eolang/parser/errors/data-objects.xsl"
+    );
+
+    /**
+     * The stylesheet, which marks every step in XMIR.
+     */
+    private static final String EACH = "org/eolang/parser/_each.xsl";
+
+    /**
+     * Compiled stylesheets, by their IDs, and the marking one in the end.
+     */
+    private static final Unchecked<List<Map.Entry<String, Templates>>> COMPILED =
+        new Unchecked<>(new Solid<>(Stylesheets::compile));
+
+    /**
+     * Factory of DOM documents.
+     */
+    private static final DocumentBuilderFactory DOCS = Stylesheets.docs();
+
+    /**
+     * Transform the XMIR and save it.
+     * @param input XMIR, right after the parser
+     * @param target Where to save the result
+     */
+    public void pass(final XML input, final Output target) {
+        new Unchecked<>(
+            new LengthOf(new TeeInput(this.transform(input).toString(), target))
+        ).value();
+    }
+
+    /**
+     * Transform the XMIR.
+     * @param input XMIR, right after the parser
+     * @return Transformed XMIR
+     */
+    public XML transform(final XML input) {
+        final List<Map.Entry<String, Templates>> sheets = Stylesheets.COMPILED.value();
+        final Templates each = sheets.get(sheets.size() - 1).getValue();
+        Node before = input.node();
+        for (int step = 0; step < sheets.size() - 1; ++step) {
+            final String sheet = sheets.get(step).getKey();
+            try {
+                final DOMResult after = new DOMResult(Stylesheets.document());
+                sheets.get(step).getValue().newTransformer()
+                    .transform(new DOMSource(before), after);
+                final DOMResult marked = new DOMResult(Stylesheets.document());
+                final Transformer mark = each.newTransformer();
+                mark.setParameter("step", step);
+                mark.setParameter("sheet", sheet);
+                mark.transform(new DOMSource(after.getNode()), marked);
+                before = marked.getNode();
+            } catch (final TransformerException ex) {
+                throw new IllegalArgumentException(
+                    String.format("XSL failure in '%s'", sheet), ex
+                );
+            }
+        }
+        return new XMLDocument(before);
+    }
+
+    /**
+     * Compile all stylesheets.
+     * @return Compiled stylesheets by their IDs, the marking one is the last
+     * @throws Exception If fails
+     */
+    private static List<Map.Entry<String, Templates>> compile() throws Exception {
+        final TransformerFactory factory = TransformerFactory.newInstance();
+        factory.setURIResolver(new ClasspathSources());
+        final List<Map.Entry<String, Templates>> sheets =
+            new ArrayList<>(Stylesheets.SHEETS.size() + 1);
+        for (final String name : Stylesheets.SHEETS) {
+            final String text = new TextOf(new ResourceOf(name)).asString();
+            sheets.add(
+                new AbstractMap.SimpleImmutableEntry<>(
+                    new XMLDocument(text).xpath("/*/@id").get(0),
+                    Stylesheets.compile(factory, name, text)
+                )
+            );
+        }
+        sheets.add(
+            new AbstractMap.SimpleImmutableEntry<>(
+                Stylesheets.EACH,
+                Stylesheets.compile(
+                    factory, Stylesheets.EACH,
+                    new TextOf(new ResourceOf(Stylesheets.EACH)).asString()
+                )
+            )
+        );
+        return sheets;
+    }
+
+    /**
+     * Compile one stylesheet.
+     * @param factory The factory
+     * @param name Its name in classpath
+     * @param text Its text
+     * @return Compiled stylesheet
+     * @throws TransformerException If fails
+     */
+    private static Templates compile(final TransformerFactory factory,
+        final String name, final String text) throws TransformerException {
+        return factory.newTemplates(new StreamSource(new StringReader(text), name));
+    }
+
+    /**
+     * A new empty DOM document.
+     * @return The document
+     */
+    private static Node document() {
+        try {
+            return Stylesheets.DOCS.newDocumentBuilder().newDocument();
+        } catch (final ParserConfigurationException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Factory of DOM documents, the same as in {@link XMLDocument}.
+     * @return The factory
+     */
+    private static DocumentBuilderFactory docs() {
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory;
+    }
+}
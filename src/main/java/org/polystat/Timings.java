@@ -0,0 +1,181 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import org.cactoos.scalar.Solid;
+import org.cactoos.scalar.Unchecked;
+
+/**
+ * Timings of analyses of objects, from previous runs, kept in a file
+ * in the temp directory, together with their costs estimated by
+ * {@link Cost}, in tab-separated lines: analysis, locator,
+ * milliseconds and units of cost.
+ *
+ * @since 1.0
+ */
+final class Timings {
+
+    /**
+     * The file.
+     */
+    private final Path file;
+
+    /**
+     * Timings by analyses and locators: milliseconds and units.
+     */
+    private final Unchecked<Map<String, double[]>> all;
+
+    /**
+     * Ctor.
+     * @param path The file, it may be absent
+     */
+    Timings(final Path path) {
+        this.file = path;
+        this.all = new Unchecked<>(new Solid<>(() -> Timings.load(path)));
+    }
+
+    /**
+     * How long the analysis of the object took last time.
+     * @param analysis The analysis
+     * @param locator Locator of the object
+     * @return Milliseconds, if known
+     */
+    public OptionalDouble millis(final Class<?> analysis, final String locator) {
+        final double[] past = this.all.value().get(Timings.key(analysis, locator));
+        final OptionalDouble millis;
+        if (past == null) {
+            millis = OptionalDouble.empty();
+        } else {
+            millis = OptionalDouble.of(past[0]);
+        }
+        return millis;
+    }
+
+    /**
+     * How many milliseconds one unit of cost of the analysis takes,
+     * on average.
+     * @param analysis The analysis
+     * @return Milliseconds per unit, or one if not known
+     */
+    public double ratio(final Class<?> analysis) {
+        final String prefix = String.format("%s\t", analysis.getSimpleName());
+        double millis = 0.0;
+        double units = 0.0;
+        for (final Map.Entry<String, double[]> ent : this.all.value().entrySet()) {
+            if (ent.getKey().startsWith(prefix)) {
+                millis += ent.getValue()[0];
+                units += ent.getValue()[1];
+            }
+        }
+        final double ratio;
+        if (millis > 0.0 && units > 0.0) {
+            ratio = millis / units;
+        } else {
+            ratio = 1.0;
+        }
+        return ratio;
+    }
+
+    /**
+     * Record how long the analysis of the object took.
+     * @param analysis The analysis
+     * @param locator Locator of the object
+     * @param time How long
+     * @param units Its cost
+     */
+    public void record(final Class<?> analysis, final String locator,
+        final Duration time, final double units) {
+        this.all.value().put(
+            Timings.key(analysis, locator),
+            new double[] {(double) time.toMillis(), units}
+        );
+    }
+
+    /**
+     * Save all timings to the file.
+     * @throws IOException If fails
+     */
+    public void save() throws IOException {
+        try (Writer out = Files.newBufferedWriter(this.file)) {
+            for (final Map.Entry<String, double[]> ent
+                : new TreeMap<>(this.all.value()).entrySet()) {
+                out.write(
+                    String.format(
+                        Locale.ROOT,
+                        "%s\t%.0f\t%.1f%n",
+                        ent.getKey(), ent.getValue()[0], ent.getValue()[1]
+                    )
+                );
+            }
+        }
+    }
+
+    /**
+     * Key of the analysis of the object.
+     * @param analysis The analysis
+     * @param locator Locator of the object
+     * @return The key
+     */
+    private static String key(final Class<?> analysis, final String locator) {
+        return String.format("%s\t%s", analysis.getSimpleName(), locator);
+    }
+
+    /**
+     * Load timings from the file.
+     * @param path The file
+     * @return Timings by keys
+     * @throws IOException If fails
+     */
+    private static Map<String, double[]> load(final Path path) throws IOException {
+        final Map<String, double[]> found = new ConcurrentHashMap<>(0);
+        if (Files.exists(path)) {
+            try (Stream<String> lines = Files.lines(path, StandardCharsets.UTF_8)) {
+                lines.map(line -> line.split("\t"))
+                    .filter(parts -> parts.length == 4)
+                    .forEach(
+                        parts -> found.put(
+                            String.join("\t", parts[0], parts[1]),
+                            new double[] {
+                                Double.parseDouble(parts[2]),
+                                Double.parseDouble(parts[3]),
+                            }
+                        )
+                    );
+            }
+        }
+        return found;
+    }
+}
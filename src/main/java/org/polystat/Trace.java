@@ -0,0 +1,184 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+
+// @checkstyle LineLengthCheck (15 lines)
+/**
+ * Probe, which writes every phase as a "complete" event of the
+ * Trace Event Format, with a lane per thread, to be opened in
+ * chrome://tracing or Perfetto.
+ *
+ * <p>Events are appended to the file as soon as their phases are over.
+ * The file is a valid JSON array only after {@link #close()}, which also
+ * writes the names of the threads, or an empty array if there were
+ * no events.</p>
+ *
+ * @see <a href="https://docs.google.com/document/d/1CvAClvFfyA5R-PhYUmn5OOQtYMH4h6I0nSsKchNAySU">Trace Event Format</a>
+ * @since 1.0
+ */
+final class Trace implements Probe, Closeable {
+
+    /**
+     * Process ID in the trace.
+     */
+    private static final int PID = 1;
+
+    /**
+     * The file.
+     */
+    private final Path file;
+
+    /**
+     * When the trace started, in nanoseconds.
+     */
+    private final long epoch;
+
+    /**
+     * Names of the threads seen, by their IDs.
+     */
+    private final Map<Long, String> threads;
+
+    /**
+     * Output, NULL until the first event.
+     */
+    private Writer out;
+
+    /**
+     * Ctor.
+     * @param file The file to write to
+     */
+    Trace(final Path file) {
+        this.file = file;
+        this.epoch = System.nanoTime();
+        this.threads = new ConcurrentHashMap<>(0);
+    }
+
+    @Override
+    public Probe.Span start(final String phase, final String subject) {
+        final long start = System.nanoTime();
+        final Thread thread = Thread.currentThread();
+        final Map<String, Object> args = new LinkedHashMap<>(0);
+        args.put("subject", subject);
+        this.threads.putIfAbsent(thread.getId(), thread.getName());
+        return new Probe.Span() {
+            @Override
+            public Probe.Span with(final String key, final Object value) {
+                args.put(key, value);
+                return this;
+            }
+
+            @Override
+            public void close() {
+                Trace.this.event(phase, thread.getId(), start, args);
+            }
+        };
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (final Map.Entry<Long, String> ent : this.threads.entrySet()) {
+            this.open();
+            Json.createGenerator(this.out)
+                .writeStartObject()
+                .write("name", "thread_name")
+                .write("ph", "M")
+                .write("pid", Trace.PID)
+                .write("tid", ent.getKey())
+                .writeStartObject("args")
+                .write("name", ent.getValue())
+                .writeEnd()
+                .writeEnd()
+                .flush();
+        }
+        if (this.out == null) {
+            Files.write(this.file, "[]\n".getBytes(StandardCharsets.UTF_8));
+        } else {
+            this.out.write("\n]\n");
+            this.out.close();
+        }
+    }
+
+    /**
+     * Append a complete event.
+     * @param name Name of the phase
+     * @param tid Thread ID
+     * @param start When it started, in nanoseconds
+     * @param args Its details
+     */
+    private synchronized void event(final String name, final long tid,
+        final long start, final Map<String, Object> args) {
+        final long now = System.nanoTime();
+        try {
+            this.open();
+            final JsonGenerator json = Json.createGenerator(this.out)
+                .writeStartObject()
+                .write("name", name)
+                .write("cat", "polystat")
+                .write("ph", "X")
+                .write("ts", TimeUnit.NANOSECONDS.toMicros(start - this.epoch))
+                .write("dur", TimeUnit.NANOSECONDS.toMicros(now - start))
+                .write("pid", Trace.PID)
+                .write("tid", tid)
+                .writeStartObject("args");
+            for (final Map.Entry<String, Object> arg : args.entrySet()) {
+                if (arg.getValue() instanceof Number) {
+                    json.write(arg.getKey(), ((Number) arg.getValue()).longValue());
+                } else {
+                    json.write(arg.getKey(), String.valueOf(arg.getValue()));
+                }
+            }
+            json.writeEnd().writeEnd().flush();
+            this.out.flush();
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Open the file, if not yet, or start the next element of the array.
+     * @throws IOException If fails
+     */
+    private void open() throws IOException {
+        if (this.out == null) {
+            this.out = Files.newBufferedWriter(this.file);
+            this.out.write("[\n");
+        } else {
+            this.out.write(",\n");
+        }
+    }
+}
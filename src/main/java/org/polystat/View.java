@@ -0,0 +1,276 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import com.jcabi.xml.XML;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import net.sf.saxon.s9api.Axis;
+import net.sf.saxon.s9api.DOMDestination;
+import net.sf.saxon.s9api.Processor;
+import net.sf.saxon.s9api.QName;
+import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.Serializer;
+import net.sf.saxon.s9api.XPathCompiler;
+import net.sf.saxon.s9api.XPathExecutable;
+import net.sf.saxon.s9api.XPathSelector;
+import net.sf.saxon.s9api.XdmItem;
+import net.sf.saxon.s9api.XdmNode;
+import net.sf.saxon.s9api.XdmNodeKind;
+import net.sf.saxon.s9api.XdmSequenceIterator;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+/**
+ * Read-only view of a node of XMIR, without a copy of it.
+ *
+ * <p>Unlike {@code XMLDocument}, which copies every node found by
+ * {@link #nodes(String)} to a new document, this one keeps a node of
+ * a shared immutable Saxon tree, which is safe to read from many
+ * threads, and evaluates XPath relative to it. The node is copied only
+ * when asked: to a string by {@link #toString()}, or to a new DOM
+ * document by {@link #node()}.</p>
+ *
+ * <p>Absolute XPath queries start from the root of the whole
+ * document, not from this node.</p>
+ *
+ * @since 1.0
+ */
+final class View implements XML {
+
+    /**
+     * Saxon, shared by all views.
+     */
+    private static final Processor SAXON = new Processor(false);
+
+    /**
+     * Compiled XPath queries without namespaces.
+     */
+    private static final Map<String, XPathExecutable> QUERIES =
+        new ConcurrentHashMap<>(0);
+
+    /**
+     * The node.
+     */
+    private final XdmNode origin;
+
+    /**
+     * Namespaces by their prefixes.
+     */
+    private final Map<String, String> namespaces;
+
+    /**
+     * Ctor.
+     * @param node The node
+     */
+    View(final XdmNode node) {
+        this(node, Collections.emptyMap());
+    }
+
+    /**
+     * Ctor.
+     * @param node The node
+     * @param nss Namespaces by their prefixes
+     */
+    private View(final XdmNode node, final Map<String, String> nss) {
+        this.origin = node;
+        this.namespaces = nss;
+    }
+
+    /**
+     * Parse an XML file to an immutable tree.
+     * @param file The file
+     * @return The document node
+     * @throws SaxonApiException If fails
+     */
+    static XdmNode parse(final Path file) throws SaxonApiException {
+        return View.SAXON.newDocumentBuilder().build(file.toFile());
+    }
+
+    /**
+     * The first child element with this name.
+     * @param element Name of the element
+     * @return The child
+     */
+    public View child(final String element) {
+        final XdmSequenceIterator kids =
+            this.origin.axisIterator(Axis.CHILD, new QName(element));
+        if (!kids.hasNext()) {
+            throw new IllegalArgumentException(
+                String.format("There is no <%s> in <%s>", element, this.origin.getNodeName())
+            );
+        }
+        return new View((XdmNode) kids.next(), this.namespaces);
+    }
+
+    /**
+     * The first child element with this name and this "name" attribute.
+     * @param element Name of the element
+     * @param name Value of its "name" attribute
+     * @return The child
+     */
+    public View child(final String element, final String name) {
+        final XdmSequenceIterator kids =
+            this.origin.axisIterator(Axis.CHILD, new QName(element));
+        final QName attr = new QName("name");
+        XdmNode found = null;
+        while (found == null && kids.hasNext()) {
+            final XdmNode kid = (XdmNode) kids.next();
+            if (name.equals(kid.getAttributeValue(attr))) {
+                found = kid;
+            }
+        }
+        if (found == null) {
+            throw new IllegalArgumentException(
+                String.format("There is no <%s name='%s'> in XMIR", element, name)
+            );
+        }
+        return new View(found, this.namespaces);
+    }
+
+    @Override
+    public List<String> xpath(final String query) {
+        final List<String> found = new ArrayList<>(1);
+        for (final XdmItem item : this.evaluate(query)) {
+            if (!item.isAtomicValue()) {
+                final XdmNodeKind kind = ((XdmNode) item).getNodeKind();
+                if (kind == XdmNodeKind.ELEMENT || kind == XdmNodeKind.DOCUMENT) {
+                    throw new IllegalArgumentException(
+                        String.format(
+                            "Only text() nodes or attributes are retrievable with xpath() '%s'",
+                            query
+                        )
+                    );
+                }
+            }
+            found.add(item.getStringValue());
+        }
+        return found;
+    }
+
+    @Override
+    public List<XML> nodes(final String query) {
+        final List<XML> found = new ArrayList<>(1);
+        for (final XdmItem item : this.evaluate(query)) {
+            if (item.isAtomicValue()) {
+                throw new IllegalArgumentException(
+                    String.format("Only nodes are retrievable with nodes() '%s'", query)
+                );
+            }
+            found.add(new View((XdmNode) item, this.namespaces));
+        }
+        return found;
+    }
+
+    @Override
+    public XML registerNs(final String prefix, final Object uri) {
+        final Map<String, String> nss = new HashMap<>(this.namespaces);
+        nss.put(prefix, uri.toString());
+        return new View(this.origin, nss);
+    }
+
+    /**
+     * Namespace contexts can't be merged, since their prefixes are unknown.
+     * @param context The context
+     * @return Nothing
+     */
+    @Override
+    public XML merge(final NamespaceContext context) {
+        throw new UnsupportedOperationException(
+            "Namespace contexts can't be merged into a view, use registerNs()"
+        );
+    }
+
+    @Override
+    public Node node() {
+        try {
+            final Document doc = DocumentBuilderFactory.newInstance()
+                .newDocumentBuilder().newDocument();
+            View.SAXON.writeXdmValue(this.origin, new DOMDestination(doc));
+            return doc;
+        } catch (final ParserConfigurationException | SaxonApiException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringWriter out = new StringWriter();
+        final Serializer ser = View.SAXON.newSerializer(out);
+        ser.setOutputProperty(Serializer.Property.OMIT_XML_DECLARATION, "yes");
+        try {
+            ser.serializeNode(this.origin);
+        } catch (final SaxonApiException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Evaluate XPath with this node as the context.
+     * @param query XPath query
+     * @return Items found
+     */
+    private Iterable<XdmItem> evaluate(final String query) {
+        try {
+            final XPathSelector selector = this.compiled(query).load();
+            selector.setContextItem(this.origin);
+            return selector.evaluate();
+        } catch (final SaxonApiException ex) {
+            throw new IllegalArgumentException(
+                String.format("Invalid XPath query '%s'", query), ex
+            );
+        }
+    }
+
+    /**
+     * Compile XPath, only once if there are no namespaces.
+     * @param query XPath query
+     * @return Compiled query
+     * @throws SaxonApiException If fails
+     */
+    private XPathExecutable compiled(final String query) throws SaxonApiException {
+        XPathExecutable exec = View.QUERIES.get(query);
+        if (exec == null || !this.namespaces.isEmpty()) {
+            final XPathCompiler compiler = View.SAXON.newXPathCompiler();
+            for (final Map.Entry<String, String> ent : this.namespaces.entrySet()) {
+                compiler.declareNamespace(ent.getKey(), ent.getValue());
+            }
+            exec = compiler.compile(query);
+            if (this.namespaces.isEmpty()) {
+                View.QUERIES.put(query, exec);
+            }
+        }
+        return exec;
+    }
+}
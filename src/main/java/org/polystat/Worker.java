@@ -0,0 +1,134 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import com.jcabi.xml.XML;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.cactoos.Func;
+import org.cactoos.list.ListOf;
+
+/**
+ * A child JVM, which runs analyses for {@link Workers}, one by one.
+ *
+ * <p>Jobs come through the standard input: the name of the class of
+ * the analysis and the locator of the object. Every job is answered
+ * through the standard output with its results. The XMIR is read from
+ * the temp directory, where the parent has already compiled it.
+ * Everything else, which is printed to the standard output, including
+ * logs, goes to the standard error. Results are sent in
+ * their {@link Binary} form.</p>
+ *
+ * @since 1.0
+ */
+final class Worker {
+
+    /**
+     * Ctor.
+     */
+    private Worker() {
+        // utility class
+    }
+
+    /**
+     * Run jobs until the standard input is closed.
+     * @param args The temp directory with XMIR
+     * @throws IOException If fails
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public static void main(final String... args) throws IOException {
+        final PrintStream stdout = System.out;
+        System.setOut(System.err);
+        final Func<String, XML> xmir = new Program(
+            new Sources.Compiled(), Paths.get(args[0]), new Probe.Silent()
+        );
+        final DataInputStream input = new DataInputStream(
+            new BufferedInputStream(System.in)
+        );
+        final DataOutputStream output = new DataOutputStream(
+            new BufferedOutputStream(stdout)
+        );
+        final Map<String, Analysis> analyses = new HashMap<>(0);
+        while (true) {
+            final String name;
+            try {
+                name = input.readUTF();
+            } catch (final EOFException ex) {
+                break;
+            }
+            final String locator = input.readUTF();
+            List<Result> results;
+            try {
+                if (!analyses.containsKey(name)) {
+                    analyses.put(
+                        name,
+                        Binary.type(name).getConstructor().newInstance()
+                    );
+                }
+                results = new ListOf<>(analyses.get(name).errors(xmir, locator));
+            // @checkstyle IllegalCatchCheck (1 line)
+            } catch (final Exception ex) {
+                results = new ListOf<Result>(
+                    new Result.Failed(Binary.type(name), ex, name, locator)
+                );
+            }
+            Binary.write(output, results);
+            output.flush();
+        }
+    }
+
+    /**
+     * Send a job to the worker.
+     * @param output Standard input of the worker
+     * @param type Class of the analysis
+     * @param locator Locator of the object
+     * @throws IOException If fails
+     */
+    static void send(final DataOutput output, final Class<? extends Analysis> type,
+        final String locator) throws IOException {
+        output.writeUTF(type.getName());
+        output.writeUTF(locator);
+    }
+
+    /**
+     * Receive the answer to the job from the worker.
+     * @param input Standard output of the worker
+     * @return Results
+     * @throws IOException If fails
+     */
+    static List<Result> receive(final DataInput input) throws IOException {
+        return Binary.read(input);
+    }
+}
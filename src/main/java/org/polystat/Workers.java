@@ -0,0 +1,334 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.cactoos.list.ListOf;
+
+/**
+ * A pool of warm child JVMs, which run analyses, see {@link Worker}.
+ *
+ * <p>Every worker has its own heap, so an {@link OutOfMemoryError} or
+ * a {@link StackOverflowError} in an analysis of one object kills only
+ * the worker, not the whole run: the job fails with an exception and
+ * the next job gets a new worker. Workers are started on demand and
+ * replaced after so many jobs, to not let leaks pile up.</p>
+ *
+ * <p>A job, which takes longer than the deadline, or whose thread is
+ * interrupted, kills its worker: the job fails with an exception and
+ * the next job gets a new worker, like after a crash.</p>
+ *
+ * <p>The class is thread-safe, no more than the size of the pool
+ * jobs run at the same time, others wait.</p>
+ *
+ * @since 1.0
+ */
+final class Workers implements Closeable {
+
+    /**
+     * The temp directory with XMIR.
+     */
+    private final Path temp;
+
+    /**
+     * Maximum heap of a worker, like "512m".
+     */
+    private final String heap;
+
+    /**
+     * How many jobs a worker runs before it is replaced.
+     */
+    private final int jobs;
+
+    /**
+     * How long a job may take.
+     */
+    private final Duration deadline;
+
+    /**
+     * Threads, which read the results of jobs from workers.
+     */
+    private final ExecutorService readers;
+
+    /**
+     * Permits to run jobs.
+     */
+    private final Semaphore slots;
+
+    /**
+     * Workers without jobs.
+     */
+    private final Queue<Workers.Child> idle;
+
+    /**
+     * All live workers.
+     */
+    private final Collection<Workers.Child> live;
+
+    /**
+     * Ctor.
+     * @param tmp The temp directory with XMIR
+     * @param size How many workers at most
+     * @param xmx Maximum heap of a worker, like "512m"
+     * @param max How many jobs a worker runs before it is replaced
+     * @param limit How long a job may take
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    Workers(final Path tmp, final int size, final String xmx, final int max,
+        final Duration limit) {
+        this.temp = tmp;
+        this.heap = xmx;
+        this.jobs = max;
+        this.deadline = limit;
+        this.readers = Executors.newCachedThreadPool(
+            task -> {
+                final Thread thread = new Thread(task, "polystat-workers");
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        this.slots = new Semaphore(size);
+        this.idle = new ConcurrentLinkedQueue<>();
+        this.live = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Run the analysis of the object in a worker.
+     * @param type Class of the analysis
+     * @param locator Locator of the object
+     * @return Results
+     * @throws IOException If the worker crashed or took too long
+     * @throws InterruptedException If interrupted
+     */
+    public List<Result> run(final Class<? extends Analysis> type,
+        final String locator) throws IOException, InterruptedException {
+        this.slots.acquire();
+        try {
+            Workers.Child child = this.idle.poll();
+            if (child == null) {
+                child = new Workers.Child(this.temp, this.heap);
+                this.live.add(child);
+            }
+            final List<Result> results;
+            try {
+                results = child.run(type, locator, this.readers, this.deadline);
+            } catch (final TimeoutException ex) {
+                this.retire(child);
+                throw new IOException(
+                    String.format(
+                        "The worker was killed, since %s of %s took longer than %s",
+                        type.getSimpleName(), locator, this.deadline
+                    ),
+                    ex
+                );
+            } catch (final InterruptedException ex) {
+                this.retire(child);
+                throw ex;
+            } catch (final IOException ex) {
+                this.retire(child);
+                throw new IOException(
+                    String.format(
+                        "The worker crashed on %s of %s with exit code %d",
+                        type.getSimpleName(), locator, child.exit()
+                    ),
+                    ex
+                );
+            }
+            if (child.done() < this.jobs) {
+                this.idle.add(child);
+            } else {
+                this.retire(child);
+            }
+            return results;
+        } finally {
+            this.slots.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        for (final Workers.Child child : this.live) {
+            this.retire(child);
+        }
+        this.readers.shutdownNow();
+    }
+
+    /**
+     * Stop the worker.
+     * @param child The worker
+     */
+    private void retire(final Workers.Child child) {
+        this.live.remove(child);
+        child.close();
+    }
+
+    /**
+     * One worker.
+     *
+     * @since 1.0
+     */
+    private static final class Child implements Closeable {
+
+        /**
+         * How long to wait for a worker to stop, in seconds.
+         */
+        private static final long GRACE = 5L;
+
+        /**
+         * The process.
+         */
+        private final Process process;
+
+        /**
+         * Its standard input.
+         */
+        private final DataOutputStream input;
+
+        /**
+         * Its standard output.
+         */
+        private final DataInputStream output;
+
+        /**
+         * Jobs done.
+         */
+        private int jobs;
+
+        /**
+         * Ctor.
+         * @param temp The temp directory with XMIR
+         * @param heap Maximum heap, like "512m"
+         * @throws IOException If can't start
+         */
+        Child(final Path temp, final String heap) throws IOException {
+            this.process = new ProcessBuilder(
+                new ListOf<>(
+                    Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                    String.format("-Xmx%s", heap),
+                    "-XX:+ExitOnOutOfMemoryError",
+                    "-cp",
+                    System.getProperty("java.class.path"),
+                    Worker.class.getName(),
+                    temp.toAbsolutePath().toString()
+                )
+            ).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            this.input = new DataOutputStream(
+                new BufferedOutputStream(this.process.getOutputStream())
+            );
+            this.output = new DataInputStream(
+                new BufferedInputStream(this.process.getInputStream())
+            );
+        }
+
+        /**
+         * Run the analysis of the object, and kill the worker if it
+         * takes too long or the thread is interrupted.
+         * @param type Class of the analysis
+         * @param locator Locator of the object
+         * @param readers Threads to read the results in
+         * @param deadline How long it may take
+         * @return Results
+         * @throws IOException If the worker crashed
+         * @throws InterruptedException If interrupted
+         * @throws TimeoutException If it took too long
+         * @checkstyle ParameterNumberCheck (10 lines)
+         */
+        public List<Result> run(final Class<? extends Analysis> type,
+            final String locator, final ExecutorService readers,
+            final Duration deadline)
+            throws IOException, InterruptedException, TimeoutException {
+            Worker.send(this.input, type, locator);
+            this.input.flush();
+            final Future<List<Result>> reply = readers.submit(
+                () -> Worker.receive(this.output)
+            );
+            final List<Result> results;
+            try {
+                results = reply.get(deadline.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (final ExecutionException ex) {
+                throw new IOException(ex.getCause());
+            } catch (final InterruptedException | TimeoutException ex) {
+                this.process.destroyForcibly();
+                throw ex;
+            }
+            this.jobs += 1;
+            return results;
+        }
+
+        /**
+         * How many jobs it did.
+         * @return Jobs
+         */
+        public int done() {
+            return this.jobs;
+        }
+
+        /**
+         * Exit code of the worker, after it stopped.
+         * @return The code, or -1 if it is still alive
+         */
+        public int exit() {
+            int code = -1;
+            if (!this.process.isAlive()) {
+                code = this.process.exitValue();
+            }
+            return code;
+        }
+
+        @Override
+        public void close() {
+            try {
+                this.input.close();
+                if (!this.process.waitFor(Workers.Child.GRACE, TimeUnit.SECONDS)) {
+                    this.process.destroyForcibly();
+                }
+            } catch (final IOException ex) {
+                this.process.destroyForcibly();
+            } catch (final InterruptedException ex) {
+                this.process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
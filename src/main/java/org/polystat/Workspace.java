@@ -0,0 +1,599 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import com.jcabi.log.Logger;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The directory with XMIR, timings and results of runs, which is kept
+ * under the limit of its size by deleting the files, which were not
+ * used for the longest time.
+ *
+ * <p>Only the files Polystat provably makes there are counted and
+ * deleted: XMIR of objects, the journal, the timings and the results of
+ * runs, right in the directory or in its subdirectories, which carry
+ * the marker file of Polystat, and nowhere deeper. XMIR is recognized
+ * by its root element, so that other XML files, like {@code pom.xml},
+ * stay, even when the directory is "--tmp .". A file was used last
+ * when it was read or written,
+ * whatever was later; {@link Program} marks XMIR as read every time it
+ * loads it, since the file system may not do so.</p>
+ *
+ * <p>A run holds an exclusive lock on the marker of its directory, see
+ * {@link #lock(Path, boolean)}, so that two runs don't share one
+ * directory. Directories, which are locked, are skipped while pruning,
+ * with all their files, like the results of the run, which are still
+ * read.</p>
+ *
+ * @since 1.0
+ */
+final class Workspace {
+
+    /**
+     * Directories locked by this JVM, since a lock of a file can't be
+     * tried twice in one JVM, and closing another channel of the file
+     * may release it.
+     */
+    private static final Set<Path> HELD = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The file, which marks a directory as a workspace of Polystat,
+     * and is locked while a run uses it.
+     */
+    static final String MARKER = ".polystat-workspace";
+
+    /**
+     * Names of the files, which Polystat makes.
+     */
+    private static final Pattern OWN = Pattern.compile(
+        "[^/]+\\.xml|journal\\.bin|results.*\\.bin|timings\\.tsv"
+    );
+
+    /**
+     * How XMIR starts, after the XML declaration.
+     */
+    private static final String XMIR = "<program";
+
+    /**
+     * How many bytes of an XML file to read to find its root element.
+     */
+    private static final int HEAD = 512;
+
+    /**
+     * Size, like "512m".
+     */
+    private static final Pattern SIZE = Pattern.compile("(\\d+)([kmg]?)b?");
+
+    /**
+     * The directory.
+     */
+    private final Path dir;
+
+    /**
+     * Maximum size of the files, in bytes.
+     */
+    private final long cap;
+
+    /**
+     * Ctor.
+     * @param path The directory
+     * @param size Maximum size of the files, like "1g"
+     */
+    Workspace(final Path path, final String size) {
+        this(path, Workspace.bytes(size));
+    }
+
+    /**
+     * Ctor.
+     * @param path The directory
+     * @param max Maximum size of the files, in bytes
+     */
+    Workspace(final Path path, final long max) {
+        this.dir = path;
+        this.cap = max;
+    }
+
+    /**
+     * The workspace of the user, in the temp directory of the system,
+     * where runs without "--tmp" keep their files.
+     * @return The directory
+     */
+    static Path root() {
+        return Paths.get(
+            System.getProperty("java.io.tmpdir"),
+            String.format("polystat-%s", System.getProperty("user.name"))
+        );
+    }
+
+    /**
+     * The directory for the EO files in the workspace, the same for
+     * the same path of them in every run.
+     * @param sources The directory or the file with EO files
+     * @return The directory
+     */
+    Path of(final Path sources) {
+        return this.dir.resolve(
+            UUID.nameUUIDFromBytes(
+                sources.toAbsolutePath().normalize().toString()
+                    .getBytes(StandardCharsets.UTF_8)
+            ).toString()
+        );
+    }
+
+    /**
+     * Mark the directory as a workspace of Polystat, so that its files
+     * may be deleted later.
+     * @param path The directory
+     * @return The directory
+     * @throws IOException If fails
+     */
+    static Path mark(final Path path) throws IOException {
+        final Path marker = Files.createDirectories(path).resolve(Workspace.MARKER);
+        if (!Files.exists(marker)) {
+            Files.write(marker, new byte[0]);
+        }
+        return path;
+    }
+
+    /**
+     * Mark the directory and lock it for a run.
+     * @param path The directory
+     * @param wait Wait for the other run, which holds the lock, if any
+     * @return The lock, or empty if another run holds it and
+     *  it is not to wait
+     * @throws IOException If fails
+     */
+    static Optional<Workspace.Lock> lock(final Path path, final boolean wait)
+        throws IOException {
+        final Path dir = Workspace.mark(path).toAbsolutePath().normalize();
+        Optional<Workspace.Lock> lock = Optional.empty();
+        if (Workspace.HELD.add(dir)) {
+            try {
+                final FileChannel channel = FileChannel.open(
+                    dir.resolve(Workspace.MARKER), StandardOpenOption.WRITE
+                );
+                FileLock held = channel.tryLock();
+                if (held == null && wait) {
+                    Logger.info(Workspace.class, "Waiting for another run in %s", dir);
+                    held = channel.lock();
+                }
+                if (held == null) {
+                    channel.close();
+                } else {
+                    lock = Optional.of(new Workspace.Lock(path, channel));
+                }
+            } finally {
+                if (!lock.isPresent()) {
+                    Workspace.HELD.remove(dir);
+                }
+            }
+        }
+        return lock;
+    }
+
+    /**
+     * Delete the files, which were used the least recently, until
+     * the rest fits into the limit, except those in directories of
+     * the runs, which are going on.
+     * @return How many files were deleted
+     * @throws IOException If fails
+     */
+    int prune() throws IOException {
+        final List<Workspace.Lock> locks = new LinkedList<>();
+        try {
+            for (final Path sub : this.marked()) {
+                final Optional<Workspace.Lock> lock = Workspace.lock(sub, false);
+                if (lock.isPresent()) {
+                    locks.add(lock.get());
+                } else {
+                    Logger.debug(this, "%s is used by a run, it stays", sub);
+                }
+            }
+            return this.prune(locks);
+        } finally {
+            for (final Workspace.Lock lock : locks) {
+                lock.close();
+            }
+        }
+    }
+
+    /**
+     * Delete the files in the locked directories, until the rest
+     * fits into the limit.
+     * @param locks Locks of the directories
+     * @return How many files were deleted
+     * @throws IOException If fails
+     */
+    private int prune(final List<Workspace.Lock> locks) throws IOException {
+        final List<Path> dirs = new LinkedList<>();
+        for (final Workspace.Lock lock : locks) {
+            dirs.add(lock.path());
+        }
+        final List<Workspace.Entry> files = this.files(dirs);
+        long total = files.stream().mapToLong(Workspace.Entry::size).sum();
+        int deleted = 0;
+        for (final Workspace.Entry file : files) {
+            if (total <= this.cap) {
+                break;
+            }
+            Files.deleteIfExists(file.path());
+            total -= file.size();
+            deleted += 1;
+        }
+        for (final Path sub : dirs) {
+            if (!sub.equals(this.dir) && this.files(Collections.singletonList(sub)).isEmpty()) {
+                Workspace.unmark(sub);
+            }
+        }
+        Logger.debug(
+            this, "%d files deleted from %s, %s left",
+            deleted, this.dir, Workspace.human(total)
+        );
+        return deleted;
+    }
+
+    /**
+     * Delete all files and the directory itself, if nothing else is left
+     * in it.
+     * @throws IOException If fails
+     */
+    void clear() throws IOException {
+        new Workspace(this.dir, 0L).prune();
+        Workspace.unmark(this.dir);
+    }
+
+    /**
+     * Statistics: how many files of what kinds, how big they are and
+     * when they were used.
+     * @return Lines of text
+     * @throws IOException If fails
+     */
+    String stats() throws IOException {
+        final List<Workspace.Entry> files = this.files(this.marked());
+        final StringBuilder out = new StringBuilder(0)
+            .append(String.format("Directory: %s\n", this.dir))
+            .append(
+                String.format(
+                    "Size: %s of %s\n",
+                    Workspace.human(files.stream().mapToLong(Workspace.Entry::size).sum()),
+                    Workspace.human(this.cap)
+                )
+            );
+        for (final String kind : new String[] {"xml", "bin", "tsv"}) {
+            final List<Workspace.Entry> some = files.stream()
+                .filter(file -> file.path().getFileName().toString().endsWith(kind))
+                .collect(Collectors.toList());
+            out.append(
+                String.format(
+                    "%s: %d files, %s\n",
+                    Workspace.kind(kind), some.size(),
+                    Workspace.human(some.stream().mapToLong(Workspace.Entry::size).sum())
+                )
+            );
+        }
+        if (!files.isEmpty()) {
+            out.append(String.format("Least recently used: %s\n", files.get(0).used()))
+                .append(
+                    String.format(
+                        "Most recently used: %s\n", files.get(files.size() - 1).used()
+                    )
+                );
+        }
+        return out.toString();
+    }
+
+    /**
+     * Mark the file as used now.
+     * @param file The file
+     * @throws IOException If fails
+     */
+    static void touch(final Path file) throws IOException {
+        Files.getFileAttributeView(file, BasicFileAttributeView.class)
+            .setTimes(null, FileTime.from(Instant.now()), null);
+    }
+
+    /**
+     * Bytes in the size, like "512m", "1g" or "100000".
+     * @param size The size
+     * @return Bytes
+     */
+    static long bytes(final String size) {
+        final Matcher matcher = Workspace.SIZE.matcher(size.toLowerCase(Locale.ENGLISH));
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(
+                String.format("The size \"%s\" is not like 512m, 1g or 100000", size)
+            );
+        }
+        final long num = Long.parseLong(matcher.group(1));
+        final long bytes;
+        if ("k".equals(matcher.group(2))) {
+            bytes = num << 10;
+        } else if ("m".equals(matcher.group(2))) {
+            bytes = num << 20;
+        } else if ("g".equals(matcher.group(2))) {
+            bytes = num << 30;
+        } else {
+            bytes = num;
+        }
+        return bytes;
+    }
+
+    /**
+     * The directory and its subdirectories, which carry the marker.
+     * @return Directories
+     * @throws IOException If fails
+     */
+    private List<Path> marked() throws IOException {
+        final List<Path> dirs = new LinkedList<>();
+        if (Files.isDirectory(this.dir)) {
+            if (Files.exists(this.dir.resolve(Workspace.MARKER))) {
+                dirs.add(this.dir);
+            }
+            try (Stream<Path> subs = Files.list(this.dir)) {
+                for (final Path sub : (Iterable<Path>) subs::iterator) {
+                    if (Files.exists(sub.resolve(Workspace.MARKER))) {
+                        dirs.add(sub);
+                    }
+                }
+            }
+        }
+        return dirs;
+    }
+
+    /**
+     * Files of Polystat right in the directories, the least recently
+     * used first.
+     * @param dirs Directories with the marker
+     * @return Files
+     * @throws IOException If fails
+     */
+    private List<Workspace.Entry> files(final List<Path> dirs) throws IOException {
+        final List<Workspace.Entry> files = new LinkedList<>();
+        for (final Path sub : dirs) {
+            try (Stream<Path> all = Files.list(sub)) {
+                for (final Path path : (Iterable<Path>) all::iterator) {
+                    if (!Workspace.OWN.matcher(path.getFileName().toString()).matches()) {
+                        continue;
+                    }
+                    try {
+                        final BasicFileAttributes attrs =
+                            Files.readAttributes(path, BasicFileAttributes.class);
+                        if (attrs.isRegularFile() && Workspace.made(path)) {
+                            files.add(new Workspace.Entry(path, attrs));
+                        }
+                    } catch (final NoSuchFileException ex) {
+                        Logger.debug(this, "%s is deleted by another run", path);
+                    }
+                }
+            } catch (final NoSuchFileException ex) {
+                Logger.debug(this, "%s is deleted by another run", sub);
+            }
+        }
+        files.sort(Comparator.comparing(Workspace.Entry::used));
+        return files;
+    }
+
+    /**
+     * Was the file made by Polystat: XMIR, if it is an XML file.
+     * @param path The file
+     * @return TRUE if made by Polystat
+     * @throws IOException If fails
+     */
+    private static boolean made(final Path path) throws IOException {
+        boolean made = true;
+        if (path.getFileName().toString().endsWith(".xml")) {
+            final byte[] head = new byte[Workspace.HEAD];
+            final int len;
+            try (InputStream input = Files.newInputStream(path)) {
+                len = Math.max(input.read(head), 0);
+            }
+            made = new String(head, 0, len, StandardCharsets.UTF_8).contains(Workspace.XMIR);
+        }
+        return made;
+    }
+
+    /**
+     * Delete the marker of the directory and the directory itself,
+     * if nothing else is left in it.
+     * @param path The directory
+     * @throws IOException If fails
+     */
+    private static void unmark(final Path path) throws IOException {
+        Files.deleteIfExists(path.resolve(Workspace.MARKER));
+        try {
+            Files.deleteIfExists(path);
+        } catch (final DirectoryNotEmptyException ex) {
+            Logger.debug(Workspace.class, "%s is not empty, it stays", path);
+        }
+    }
+
+    /**
+     * What is in the files with the extension.
+     * @param ext The extension
+     * @return The kind
+     */
+    private static String kind(final String ext) {
+        final String kind;
+        if ("xml".equals(ext)) {
+            kind = "XMIR";
+        } else if ("bin".equals(ext)) {
+            kind = "Results";
+        } else {
+            kind = "Timings";
+        }
+        return kind;
+    }
+
+    /**
+     * The size for humans, like "1.5 MB".
+     * @param bytes Bytes
+     * @return The size
+     */
+    private static String human(final long bytes) {
+        final String[] units = {"B", "KB", "MB", "GB", "TB"};
+        double num = bytes;
+        int unit = 0;
+        while (num >= 1024.0 && unit < units.length - 1) {
+            num /= 1024.0;
+            unit += 1;
+        }
+        final String human;
+        if (unit == 0) {
+            human = String.format("%d B", bytes);
+        } else {
+            human = String.format(Locale.ENGLISH, "%.1f %s", num, units[unit]);
+        }
+        return human;
+    }
+
+    /**
+     * The lock of a directory, held by a run.
+     *
+     * @since 1.0
+     */
+    static final class Lock implements Closeable {
+
+        /**
+         * The directory.
+         */
+        private final Path dir;
+
+        /**
+         * The channel of its marker, which holds the lock.
+         */
+        private final FileChannel channel;
+
+        /**
+         * Ctor.
+         * @param path The directory
+         * @param chnl The channel of its marker, which holds the lock
+         */
+        Lock(final Path path, final FileChannel chnl) {
+            this.dir = path;
+            this.channel = chnl;
+        }
+
+        /**
+         * The directory.
+         * @return Path
+         */
+        public Path path() {
+            return this.dir;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                this.channel.close();
+            } finally {
+                Workspace.HELD.remove(this.dir.toAbsolutePath().normalize());
+            }
+        }
+    }
+
+    /**
+     * A file with its size and the time of its last use.
+     *
+     * @since 1.0
+     */
+    private static final class Entry {
+
+        /**
+         * The file.
+         */
+        private final Path file;
+
+        /**
+         * Its attributes, when it was found.
+         */
+        private final BasicFileAttributes attrs;
+
+        /**
+         * Ctor.
+         * @param path The file
+         * @param attributes Its attributes
+         */
+        Entry(final Path path, final BasicFileAttributes attributes) {
+            this.file = path;
+            this.attrs = attributes;
+        }
+
+        /**
+         * The file.
+         * @return Path
+         */
+        public Path path() {
+            return this.file;
+        }
+
+        /**
+         * Its size.
+         * @return Bytes
+         */
+        public long size() {
+            return this.attrs.size();
+        }
+
+        /**
+         * When it was read or written last.
+         * @return The time
+         */
+        public FileTime used() {
+            FileTime used = this.attrs.lastModifiedTime();
+            if (this.attrs.lastAccessTime().compareTo(used) > 0) {
+                used = this.attrs.lastAccessTime();
+            }
+            return used;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link Admission}.
+ *
+ * @since 1.0
+ */
+final class AdmissionTest {
+
+    @Test
+    void queuesTasksBeyondBudget() throws Exception {
+        final Admission admission = new Admission(10L * 1024L, 1.0);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger running = new AtomicInteger();
+        final ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            final Future<Integer> first = pool.submit(
+                () -> admission.admit(
+                    8L * 1024L,
+                    () -> {
+                        running.incrementAndGet();
+                        started.countDown();
+                        release.await();
+                        return running.getAndDecrement();
+                    }
+                )
+            );
+            started.await();
+            final Future<Integer> second = pool.submit(
+                () -> admission.admit(8L * 1024L, running::incrementAndGet)
+            );
+            MatcherAssert.assertThat(
+                second.isDone() || pool.awaitTermination(100L, TimeUnit.MILLISECONDS),
+                Matchers.is(false)
+            );
+            release.countDown();
+            MatcherAssert.assertThat(first.get(), Matchers.equalTo(1));
+            MatcherAssert.assertThat(second.get(), Matchers.equalTo(1));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void runsTaskBiggerThanBudget() throws Exception {
+        MatcherAssert.assertThat(
+            new Admission(1024L, 0.5).admit(1L << 30, () -> "done"),
+            Matchers.equalTo("done")
+        );
+    }
+
+    @Test
+    void rejectsWrongFraction() {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new Admission(1024L, 1.5)
+        );
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import java.util.HashMap;
+import java.util.Map;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link AnOdin}.
+ *
+ * @since 1.0
+ */
+final class AnOdinTest {
+
+    @Test
+    void resolvesDecorateesTransitively() throws Exception {
+        final Map<String, XML> objects = AnOdinTest.objects(
+            "a", "corpus.b", "b", "corpus.c", "c", ".div"
+        );
+        MatcherAssert.assertThat(
+            AnOdin.getObjectsHierarchy(objects::get, objects.get("\\Phi.a")),
+            Matchers.stringContainsInOrder("name=\"c\"", "name=\"b\"", "name=\"a\"")
+        );
+    }
+
+    @Test
+    void stopsOnCyclesOfDecoratees() throws Exception {
+        final Map<String, XML> objects = AnOdinTest.objects(
+            "a", "corpus.b", "b", "corpus.a"
+        );
+        final String hierarchy =
+            AnOdin.getObjectsHierarchy(objects::get, objects.get("\\Phi.a"));
+        MatcherAssert.assertThat(
+            hierarchy,
+            Matchers.stringContainsInOrder("name=\"b\"", "name=\"a\"")
+        );
+        for (final String name : new String[] {"a", "b"}) {
+            MatcherAssert.assertThat(
+                hierarchy.split(String.format("name=\"%s\"", name), -1).length - 1,
+                Matchers.equalTo(1)
+            );
+        }
+    }
+
+    /**
+     * Objects, each with one decoratee, by their locators.
+     * @param pairs Names of objects and their decoratees
+     * @return Objects
+     */
+    private static Map<String, XML> objects(final String... pairs) {
+        final Map<String, XML> objects = new HashMap<>(0);
+        for (int idx = 0; idx < pairs.length; idx += 2) {
+            objects.put(
+                String.format("\\Phi.%s", pairs[idx]),
+                new XMLDocument(
+                    String.format(
+                        "<objects><o name='%s'><o name='@' base='%s'/></o></objects>",
+                        pairs[idx], pairs[idx + 1]
+                    )
+                ).nodes("/objects/o").get(0)
+            );
+        }
+        return objects;
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.io.StringReader;
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.cactoos.iterable.IterableOf;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link AsNdjson}.
+ *
+ * @since 1.0
+ */
+final class AsNdjsonTest {
+
+    @Test
+    void printsRecordPerFinding() {
+        MatcherAssert.assertThat(
+            new AsNdjson(
+                new IterableOf<>(
+                    new Result.Completed(
+                        AnFaR.class,
+                        new ListOf<>("x\ny", "z"),
+                        "DIV0",
+                        "\\Phi.test"
+                    ),
+                    new Result.Completed(
+                        AnFaR.class,
+                        new ListOf<>(),
+                        "DIV0",
+                        "\\Phi.five"
+                    )
+                )
+            ).get().split("\n"),
+            Matchers.arrayWithSize(2)
+        );
+    }
+
+    @Test
+    void printsFailure() {
+        final JsonObject json = Json.createReader(
+            new StringReader(
+                new AsNdjson(
+                    new IterableOf<>(
+                        new Result.Failed(
+                            AnOdin.class,
+                            new IllegalStateException("broken"),
+                            "RULE",
+                            "\\Phi.foo"
+                        )
+                    )
+                ).get()
+            )
+        ).readObject();
+        MatcherAssert.assertThat(
+            json.getString("locator"),
+            Matchers.equalTo("\\Phi.foo")
+        );
+        MatcherAssert.assertThat(
+            json.getString("exception"),
+            Matchers.equalTo(IllegalStateException.class.getName())
+        );
+    }
+
+    @Test
+    void printsSkippedObjectsInTheEnd() {
+        final String[] lines = new AsNdjson(
+            new IterableOf<Result>(
+                new Result.Completed(AnFaR.class, new ListOf<>("x"), "DIV0", "\\Phi.a")
+            ),
+            new ListOf<>("\\Phi.b")
+        ).get().split("\n");
+        MatcherAssert.assertThat(
+            Json.createReader(new StringReader(lines[1])).readObject().getString("kind"),
+            Matchers.equalTo("skipped")
+        );
+    }
+
+}
@@ -25,10 +25,20 @@
 package org.polystat;
 
 import com.jcabi.manifests.Manifests;
+import java.io.Closeable;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import org.cactoos.io.ResourceOf;
 import org.cactoos.iterable.IterableOf;
 import org.cactoos.iterable.Repeated;
 import org.cactoos.list.ListOf;
+import org.cactoos.text.TextOf;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeAll;
@@ -90,6 +100,19 @@ final class AsSarifTest {
         );
     }
 
+    @Test
+    void closesIteratorsOfErrors() {
+        final AtomicInteger closed = new AtomicInteger();
+        final Iterable<Result> errors = () -> new AsSarifTest.Closing(
+            new ListOf<Result>(
+                new Result.Completed(Analysis.class, new ListOf<>("x"), AsSarifTest.SAMPLE_RULEID)
+            ).iterator(),
+            closed
+        );
+        new AsSarif(errors).get();
+        MatcherAssert.assertThat(closed.get(), Matchers.equalTo(2));
+    }
+
     @Test
     void addsResultsWithRuleId() {
         final List<String> errors = new ListOf<>("a", "b", "c");
@@ -109,4 +132,125 @@ final class AsSarifTest {
         );
     }
 
+    @Test
+    void listsSkippedObjects() {
+        MatcherAssert.assertThat(
+            Json.createReader(
+                new StringReader(
+                    new AsSarif(
+                        new IterableOf<Result>(),
+                        new ListOf<>("\\Phi.a", "\\Phi.b")
+                    ).get()
+                )
+            ).readObject()
+                .getJsonArray("runs").getJsonObject(0)
+                .getJsonObject("properties").getJsonArray("skipped")
+                .getString(1),
+            Matchers.equalTo("\\Phi.b")
+        );
+    }
+
+    @Test
+    void streamsSameDocumentAsTreeModel() throws Exception {
+        final StringWriter out = new StringWriter();
+        new AsSarif(
+            new IterableOf<>(
+                new Result.Completed(
+                    Analysis.class,
+                    new ListOf<>("first \"quoted\"", "second\n\\perp"),
+                    AsSarifTest.SAMPLE_RULEID
+                ),
+                new Result.Completed(
+                    Analysis.class,
+                    new ListOf<>(),
+                    AsSarifTest.SAMPLE_RULEID
+                ),
+                new Result.Failed(
+                    Analysis.class,
+                    new IllegalStateException("broken"),
+                    AsSarifTest.SAMPLE_RULEID
+                )
+            )
+        ).print(out);
+        MatcherAssert.assertThat(
+            AsSarifTest.withoutFingerprints(
+                Json.createReader(new StringReader(out.toString())).readObject()
+            ),
+            Matchers.equalTo(
+                Json.createReader(
+                    new StringReader(
+                        new TextOf(
+                            new ResourceOf("org/polystat/tree-model.sarif.json")
+                        ).asString()
+                    )
+                ).readObject()
+            )
+        );
+    }
+
+    /**
+     * The SARIF without fingerprints of results, which the tree model,
+     * that printed the expected document, didn't have yet.
+     * @param sarif The SARIF
+     * @return The same SARIF without fingerprints
+     */
+    private static JsonObject withoutFingerprints(final JsonObject sarif) {
+        final JsonObject run = sarif.getJsonArray("runs").getJsonObject(0);
+        final JsonArrayBuilder results = Json.createArrayBuilder();
+        for (final JsonObject res : run.getJsonArray("results").getValuesAs(JsonObject.class)) {
+            results.add(Json.createObjectBuilder(res).remove("partialFingerprints"));
+        }
+        return Json.createObjectBuilder(sarif)
+            .add(
+                "runs",
+                Json.createArrayBuilder().add(
+                    Json.createObjectBuilder(run).add("results", results)
+                )
+            )
+            .build();
+    }
+
+    /**
+     * Iterator, which counts how many times it is closed.
+     *
+     * @since 1.0
+     */
+    private static final class Closing implements Iterator<Result>, Closeable {
+
+        /**
+         * The results.
+         */
+        private final Iterator<Result> origin;
+
+        /**
+         * How many times iterators are closed.
+         */
+        private final AtomicInteger closed;
+
+        /**
+         * Ctor.
+         * @param results The results
+         * @param counter How many times iterators are closed
+         */
+        Closing(final Iterator<Result> results, final AtomicInteger counter) {
+            this.origin = results;
+            this.closed = counter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.origin.hasNext();
+        }
+
+        @Override
+        public Result next() {
+            return this.origin.next();
+        }
+
+        @Override
+        public void close() {
+            this.closed.incrementAndGet();
+        }
+    }
+
 }
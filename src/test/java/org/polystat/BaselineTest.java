@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import com.jcabi.manifests.Manifests;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.cactoos.iterable.IterableOf;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link Baseline}.
+ *
+ * @since 1.0
+ */
+final class BaselineTest {
+
+    @BeforeAll
+    static void addPolystatVersion() {
+        Manifests.DEFAULT.put("Polystat-Version", "1.0-SNAPSHOT");
+    }
+
+    @Test
+    void findsKnownFindings(@TempDir final Path tmp) throws Exception {
+        final Path sarif = tmp.resolve("old.sarif");
+        Files.write(
+            sarif,
+            new AsSarif(
+                new IterableOf<>(
+                    new Result.Completed(
+                        AnFaR.class, new ListOf<>("\\perp at {a=0}"), "DIV0", "\\Phi.test"
+                    ),
+                    new Result.Completed(
+                        AnFaR.class, new ListOf<>(), "DIV0", "\\Phi.five"
+                    )
+                )
+            ).get().getBytes(StandardCharsets.UTF_8)
+        );
+        final Baseline baseline = new Baseline(sarif);
+        MatcherAssert.assertThat(baseline.size(), Matchers.equalTo(1));
+        MatcherAssert.assertThat(
+            baseline.contains(
+                new Fingerprint(
+                    new Result.Completed(
+                        AnFaR.class, new ListOf<>("  \\perp at\n{a=0} "), "DIV0", "\\Phi.test"
+                    )
+                )
+            ),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            baseline.contains(
+                new Fingerprint(
+                    new Result.Completed(
+                        AnFaR.class, new ListOf<>("\\perp at {a=0}"), "DIV0", "\\Phi.other"
+                    )
+                )
+            ),
+            Matchers.is(false)
+        );
+    }
+
+}
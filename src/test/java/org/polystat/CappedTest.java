@@ -0,0 +1,73 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link Capped}.
+ *
+ * @since 1.0
+ */
+final class CappedTest {
+
+    @Test
+    void stopsOnEnoughFindings() {
+        final AtomicInteger stops = new AtomicInteger();
+        final Capped capped = new Capped(
+            new ListOf<Result>(
+                new Result.Completed(AnFaR.class, Collections.emptyList(), "r1"),
+                new Result.Failed(AnFaR.class, new IllegalStateException("oops"), "r2"),
+                new Result.Completed(AnFaR.class, new ListOf<>("bug"), "r3"),
+                new Result.Completed(AnFaR.class, new ListOf<>("bug"), "r4")
+            ),
+            1,
+            stops::incrementAndGet
+        );
+        MatcherAssert.assertThat(capped, Matchers.iterableWithSize(3));
+        MatcherAssert.assertThat(capped.reached(), Matchers.is(true));
+        MatcherAssert.assertThat(stops.get(), Matchers.greaterThan(0));
+    }
+
+    @Test
+    void keepsAllWithoutEnoughFindings() {
+        final Capped capped = new Capped(
+            new ListOf<Result>(
+                new Result.Completed(AnFaR.class, new ListOf<>("bug"), "r1"),
+                new Result.Completed(AnFaR.class, Collections.emptyList(), "r2")
+            ),
+            2,
+            () -> {
+            }
+        );
+        MatcherAssert.assertThat(capped, Matchers.iterableWithSize(2));
+        MatcherAssert.assertThat(capped.reached(), Matchers.is(false));
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import com.jcabi.log.VerboseProcess;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link Changes}.
+ *
+ * @since 1.0
+ */
+final class ChangesTest {
+
+    @Test
+    void findsDecorateesInSource() {
+        MatcherAssert.assertThat(
+            Changes.decoratees(
+                String.join(
+                    "\n",
+                    "+package corpus", "+alias base corpus.base", "",
+                    "[] > obj", "  corpus.base > @", "  [x] > f", "    x > @", ""
+                )
+            ),
+            Matchers.contains("base", "x")
+        );
+    }
+
+    @Test
+    void findsDecorateesAtAnyIndentation() {
+        MatcherAssert.assertThat(
+            Changes.decoratees(
+                String.join(
+                    "\n",
+                    "[] > obj", "    first > @", "    [] > inner", "\t\tsecond > @",
+                    "        [] > deep", "          corpus.third > @", ""
+                )
+            ),
+            Matchers.contains("first", "second", "third")
+        );
+    }
+
+    @Test
+    void skipsMethodCalls() {
+        MatcherAssert.assertThat(
+            Changes.decoratees("[x] > test\n  div. > @\n    42\n    x\n"),
+            Matchers.empty()
+        );
+    }
+
+    @Test
+    void findsChangedObjectsAndTheirUsers(@TempDir final Path dir) throws Exception {
+        ChangesTest.write(dir, "base", "[] > base\n  [x] > f\n    x > @\n");
+        ChangesTest.write(dir, "user", "[] > user\n  base > @\n");
+        ChangesTest.write(dir, "other", "[] > other\n  [y] > g\n    y > @\n");
+        ChangesTest.git(dir, "init", "-q");
+        ChangesTest.git(dir, "add", ".");
+        ChangesTest.git(
+            dir, "-c", "user.name=test", "-c", "user.email=test@polystat.org",
+            "commit", "-q", "-m", "first"
+        );
+        ChangesTest.write(dir, "base", "[] > base\n");
+        MatcherAssert.assertThat(
+            new Changes(dir, "HEAD").affected(new Sources.Dir(dir)),
+            Matchers.contains("base", "user")
+        );
+    }
+
+    @Test
+    void rejectsRevisionLikeOption(@TempDir final Path dir) {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new Changes(dir, "--output=/tmp/diff")
+        );
+    }
+
+    /**
+     * Write EO file.
+     * @param dir Directory
+     * @param name Name of the object
+     * @param code Source code
+     * @throws Exception If fails
+     */
+    private static void write(final Path dir, final String name, final String code)
+        throws Exception {
+        Files.write(
+            dir.resolve(String.format("%s.eo", name)),
+            code.getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    /**
+     * Run git.
+     * @param dir Directory
+     * @param args Arguments
+     */
+    private static void git(final Path dir, final String... args) {
+        final String[] cmd = new String[args.length + 1];
+        cmd[0] = "git";
+        System.arraycopy(args, 0, cmd, 1, args.length);
+        new VerboseProcess(new ProcessBuilder(cmd).directory(dir.toFile())).stdout();
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link Inputs}.
+ *
+ * @since 1.0
+ */
+final class InputsTest {
+
+    @Test
+    void sumsSizesOfDecoratees() throws Exception {
+        final Map<String, byte[]> files = new HashMap<>(0);
+        files.put("a", "[] > a\n  b > @\n".getBytes(StandardCharsets.UTF_8));
+        files.put("b", "[] > b\n  a > @\n".getBytes(StandardCharsets.UTF_8));
+        files.put("c", "[] > c\n".getBytes(StandardCharsets.UTF_8));
+        final Inputs inputs = new Inputs(new Sources.Memory(files));
+        MatcherAssert.assertThat(inputs.size("a"), Matchers.equalTo(30L));
+        MatcherAssert.assertThat(inputs.size("c"), Matchers.equalTo(7L));
+    }
+
+    @Test
+    void changesDigestWithDecorateesOfInnerObjects() throws Exception {
+        final Map<String, byte[]> files = new HashMap<>(0);
+        files.put("a", "[] > a\n    [] > f\n      b > @\n".getBytes(StandardCharsets.UTF_8));
+        files.put("b", "[] > b\n".getBytes(StandardCharsets.UTF_8));
+        final String before = new Inputs(new Sources.Memory(files)).digest("a");
+        files.put("b", "[] > b\n  42 > x\n".getBytes(StandardCharsets.UTF_8));
+        MatcherAssert.assertThat(
+            new Inputs(new Sources.Memory(files)).digest("a"),
+            Matchers.not(Matchers.equalTo(before))
+        );
+    }
+
+    @Test
+    void changesDigestWithVersions() throws Exception {
+        final Map<String, byte[]> files = new HashMap<>(0);
+        files.put("a", "[] > a\n".getBytes(StandardCharsets.UTF_8));
+        MatcherAssert.assertThat(
+            new Inputs(new Sources.Memory(files), "far=0.2.0").digest("a"),
+            Matchers.not(
+                Matchers.equalTo(
+                    new Inputs(new Sources.Memory(files), "far=0.2.1").digest("a")
+                )
+            )
+        );
+    }
+
+}
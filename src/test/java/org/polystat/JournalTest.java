@@ -0,0 +1,162 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link Journal}.
+ *
+ * @since 1.0
+ */
+final class JournalTest {
+
+    @Test
+    void resumesFinishedAnalyses(@TempDir final Path temp) throws Exception {
+        final Path file = temp.resolve("journal.bin");
+        final Instant start = Instant.parse("2022-03-01T10:00:00.123456Z");
+        try (Journal journal = new Journal(file, "always", false)) {
+            journal.append(
+                AnFaR.class, "\\Phi.test",
+                new ListOf<Result>(
+                    new Result.Timed(
+                        new Result.Completed(
+                            AnFaR.class, new ListOf<>("division by zero"),
+                            "far", "\\Phi.test"
+                        ),
+                        start, Duration.ofMillis(42L)
+                    )
+                )
+            );
+        }
+        try (Journal journal = new Journal(file, "never", true)) {
+            final Result res = journal.results(AnFaR.class, "\\Phi.test").get().get(0);
+            MatcherAssert.assertThat(res, Matchers.contains("division by zero"));
+            MatcherAssert.assertThat(res.started().get(), Matchers.equalTo(start));
+            MatcherAssert.assertThat(res.elapsed(), Matchers.equalTo(Duration.ofMillis(42L)));
+            MatcherAssert.assertThat(
+                journal.results(AnOdin.class, "\\Phi.test").isPresent(),
+                Matchers.is(false)
+            );
+        }
+    }
+
+    @Test
+    void dropsTornRecord(@TempDir final Path temp) throws Exception {
+        final Path file = temp.resolve("journal.bin");
+        try (Journal journal = new Journal(file, "1", false)) {
+            journal.append(AnOdin.class, "\\Phi.a", Collections.emptyList());
+        }
+        final long size = Files.size(file);
+        Files.write(file, new byte[] {0, 0, 1, 0, 7}, StandardOpenOption.APPEND);
+        try (Journal journal = new Journal(file, "always", true)) {
+            MatcherAssert.assertThat(
+                journal.results(AnOdin.class, "\\Phi.a").isPresent(),
+                Matchers.is(true)
+            );
+            journal.append(AnOdin.class, "\\Phi.b", Collections.emptyList());
+        }
+        MatcherAssert.assertThat(Files.size(file), Matchers.equalTo(size * 2));
+    }
+
+    @Test
+    void startsFromScratchWithoutResume(@TempDir final Path temp) throws Exception {
+        final Path file = temp.resolve("journal.bin");
+        try (Journal journal = new Journal(file, "always", false)) {
+            journal.append(AnOdin.class, "\\Phi.a", Collections.emptyList());
+        }
+        try (Journal journal = new Journal(file, "always", false)) {
+            MatcherAssert.assertThat(
+                journal.results(AnOdin.class, "\\Phi.a").isPresent(),
+                Matchers.is(false)
+            );
+        }
+    }
+
+    @Test
+    void dropsStaleRecords(@TempDir final Path temp) throws Exception {
+        final Path file = temp.resolve("results.bin");
+        try (Journal journal = new Journal(file, "never", false)) {
+            journal.append(AnOdin.class, "\\Phi.a 01", Collections.emptyList());
+            journal.append(AnOdin.class, "\\Phi.b 01", Collections.emptyList());
+        }
+        final long size = Files.size(file);
+        try (Journal journal = new Journal(file, "never", true)) {
+            journal.append(AnOdin.class, "\\Phi.a 02", Collections.emptyList());
+        }
+        try (Journal journal = new Journal(file, "never", true)) {
+            MatcherAssert.assertThat(
+                journal.results(AnOdin.class, "\\Phi.a 01").isPresent(),
+                Matchers.is(false)
+            );
+            MatcherAssert.assertThat(
+                journal.results(AnOdin.class, "\\Phi.a 02").isPresent(),
+                Matchers.is(true)
+            );
+            MatcherAssert.assertThat(
+                journal.results(AnOdin.class, "\\Phi.b 01").isPresent(),
+                Matchers.is(true)
+            );
+        }
+        MatcherAssert.assertThat(Files.size(file), Matchers.equalTo(size));
+    }
+
+    @Test
+    void keepsAppendedRecordsOnDiskOnly(@TempDir final Path temp) throws Exception {
+        final Path file = temp.resolve("journal.bin");
+        try (Journal journal = new Journal(file, "never", false)) {
+            journal.append(AnOdin.class, "\\Phi.a", Collections.emptyList());
+            MatcherAssert.assertThat(
+                journal.results(AnOdin.class, "\\Phi.a").isPresent(),
+                Matchers.is(false)
+            );
+        }
+        try (Journal journal = new Journal(file, "never", true)) {
+            MatcherAssert.assertThat(
+                journal.results(AnOdin.class, "\\Phi.a").isPresent(),
+                Matchers.is(true)
+            );
+        }
+    }
+
+    @Test
+    void rejectsWrongPolicy(@TempDir final Path temp) {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new Journal(temp.resolve("journal.bin"), "sometimes", false)
+        );
+    }
+
+}
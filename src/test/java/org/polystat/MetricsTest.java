@@ -0,0 +1,84 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link Metrics}.
+ *
+ * @since 1.0
+ */
+final class MetricsTest {
+
+    @Test
+    void savesPhasesAsJson(@TempDir final Path tmp) throws Exception {
+        final Metrics metrics = new Metrics();
+        for (int idx = 0; idx < 3; ++idx) {
+            try (Probe.Span span = metrics.start("parse", "test")) {
+                MatcherAssert.assertThat(span, Matchers.notNullValue());
+            }
+        }
+        final Path file = tmp.resolve("metrics.json");
+        metrics.save(file);
+        MatcherAssert.assertThat(
+            new String(Files.readAllBytes(file), StandardCharsets.UTF_8),
+            Matchers.stringContainsInOrder("\"phase\":\"parse\"", "\"count\":3")
+        );
+    }
+
+    @Test
+    void savesDeepestQueue(@TempDir final Path tmp) throws Exception {
+        final Metrics metrics = new Metrics();
+        metrics.start("stage/compile", "\\Phi.a").with("queue", 3).close();
+        metrics.start("stage/compile", "\\Phi.b").with("queue", 1).close();
+        final Path file = tmp.resolve("metrics.prom");
+        metrics.save(file);
+        MatcherAssert.assertThat(
+            new String(Files.readAllBytes(file), StandardCharsets.UTF_8),
+            Matchers.containsString("polystat_stage_queue_max{stage=\"stage/compile\"} 3.0")
+        );
+    }
+
+    @Test
+    void savesPhasesForPrometheus(@TempDir final Path tmp) throws Exception {
+        final Metrics metrics = new Metrics();
+        metrics.start("analysis/AnFaR", "\\Phi.test").close();
+        final Path file = tmp.resolve("metrics.prom");
+        metrics.save(file);
+        MatcherAssert.assertThat(
+            new String(Files.readAllBytes(file), StandardCharsets.UTF_8),
+            Matchers.containsString(
+                "polystat_phase_calls_total{phase=\"analysis/AnFaR\"} 1.0"
+            )
+        );
+    }
+
+}
@@ -0,0 +1,233 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link Pipeline}.
+ *
+ * @since 1.0
+ */
+final class PipelineTest {
+
+    @Test
+    void startsExpensiveFirstAndKeepsOrder() throws Exception {
+        final List<String> started = new CopyOnWriteArrayList<>();
+        final CountDownLatch compiled = new CountDownLatch(3);
+        try (Pipeline pipeline = new Pipeline(1, 3, new Probe.Silent());
+            Stream<Result> results = pipeline.results(
+                new ListOf<>("\\Phi.a", "\\Phi.b", "\\Phi.c"),
+                new ListOf<Analysis>(new AnFaR()),
+                locator -> {
+                    compiled.countDown();
+                    return locator;
+                },
+                (analysis, locator) -> (double) locator.charAt(locator.length() - 1),
+                (analysis, locator) -> {
+                    compiled.await(1L, TimeUnit.MINUTES);
+                    started.add(locator);
+                    return PipelineTest.result(locator);
+                }
+            )) {
+            MatcherAssert.assertThat(
+                results.map(Result::locator).collect(Collectors.toList()),
+                Matchers.contains("\\Phi.a", "\\Phi.b", "\\Phi.c")
+            );
+        }
+        MatcherAssert.assertThat(
+            started,
+            Matchers.contains("\\Phi.a", "\\Phi.c", "\\Phi.b")
+        );
+    }
+
+    @Test
+    void keepsFewObjectsInside() throws Exception {
+        final AtomicInteger compiled = new AtomicInteger();
+        final List<String> locators = new ListOf<>(
+            "\\Phi.a", "\\Phi.b", "\\Phi.c", "\\Phi.d", "\\Phi.e", "\\Phi.f", "\\Phi.g"
+        );
+        try (Pipeline pipeline = new Pipeline(2, 2, new Probe.Silent());
+            Stream<Result> results = pipeline.results(
+                locators,
+                new ListOf<Analysis>(new AnFaR(), new AnOdin()),
+                locator -> compiled.incrementAndGet(),
+                (analysis, locator) -> 1.0,
+                (analysis, locator) -> PipelineTest.result(locator)
+            )) {
+            final Iterator<Result> iter = results.iterator();
+            int reported = 0;
+            while (iter.hasNext()) {
+                iter.next();
+                reported += 1;
+                TimeUnit.MILLISECONDS.sleep(5L);
+                MatcherAssert.assertThat(
+                    compiled.get() - (reported + 1) / 2,
+                    Matchers.lessThanOrEqualTo(2)
+                );
+            }
+            MatcherAssert.assertThat(reported, Matchers.equalTo(locators.size() * 2));
+        }
+    }
+
+    @Test
+    void reportsQueuesOfStages(@TempDir final Path temp) throws Exception {
+        final Metrics metrics = new Metrics();
+        try (Pipeline pipeline = new Pipeline(2, 4, metrics);
+            Stream<Result> results = pipeline.results(
+                new ListOf<>("\\Phi.a", "\\Phi.b"),
+                new ListOf<Analysis>(new AnFaR()),
+                locator -> locator,
+                (analysis, locator) -> 1.0,
+                (analysis, locator) -> PipelineTest.result(locator)
+            )) {
+            MatcherAssert.assertThat(results.count(), Matchers.equalTo(2L));
+        }
+        final Path file = temp.resolve("metrics.json");
+        metrics.save(file);
+        MatcherAssert.assertThat(
+            new String(Files.readAllBytes(file), StandardCharsets.UTF_8),
+            Matchers.allOf(
+                Matchers.containsString("\"phase\":\"stage/discover\""),
+                Matchers.containsString("\"phase\":\"stage/compile\""),
+                Matchers.containsString("\"phase\":\"stage/analyze\""),
+                Matchers.containsString("\"phase\":\"stage/report\""),
+                Matchers.containsString("\"maxQueue\":2")
+            )
+        );
+    }
+
+    @Test
+    void failsPendingAnalysesWhenClosed() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final Pipeline pipeline = new Pipeline(2, 2, new Probe.Silent());
+        try (Stream<Result> results = pipeline.results(
+            new ListOf<>("\\Phi.a", "\\Phi.b", "\\Phi.c", "\\Phi.d"),
+            new ListOf<Analysis>(new AnFaR()),
+            locator -> locator,
+            (analysis, locator) -> 1.0,
+            (analysis, locator) -> {
+                started.countDown();
+                new CountDownLatch(1).await();
+                return PipelineTest.result(locator);
+            }
+        )) {
+            started.await(1L, TimeUnit.MINUTES);
+            pipeline.close();
+            final List<Result> all = results.collect(Collectors.toList());
+            MatcherAssert.assertThat(
+                all.stream().map(Result::locator).collect(Collectors.toList()),
+                Matchers.contains("\\Phi.a", "\\Phi.b", "\\Phi.c", "\\Phi.d")
+            );
+            for (final Result res : all) {
+                MatcherAssert.assertThat(res.failure().isPresent(), Matchers.is(true));
+            }
+        }
+    }
+
+    @Test
+    void interruptsRunningAnalysesWhenEnoughFindings() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        try (Pipeline pipeline = new Pipeline(2, 3, new Probe.Silent());
+            Stream<Result> results = pipeline.results(
+                new ListOf<>("\\Phi.a", "\\Phi.b", "\\Phi.c"),
+                new ListOf<Analysis>(new AnFaR()),
+                locator -> locator,
+                (analysis, locator) -> 1.0,
+                (analysis, locator) -> {
+                    if ("\\Phi.a".equals(locator)) {
+                        blocked.await(1L, TimeUnit.MINUTES);
+                        return new ListOf<Result>(
+                            new Result.Completed(AnFaR.class, new ListOf<>("bug"), "r", locator)
+                        );
+                    }
+                    blocked.countDown();
+                    try {
+                        new CountDownLatch(1).await();
+                    } catch (final InterruptedException ex) {
+                        interrupted.countDown();
+                        throw ex;
+                    }
+                    return PipelineTest.result(locator);
+                }
+            )) {
+            final Capped capped = new Capped(results::iterator, 1, results::close);
+            MatcherAssert.assertThat(capped, Matchers.iterableWithSize(1));
+            MatcherAssert.assertThat(
+                interrupted.await(1L, TimeUnit.MINUTES),
+                Matchers.is(true)
+            );
+        }
+    }
+
+    @Test
+    void reportsAnalysisThatThrows() throws Exception {
+        try (Pipeline pipeline = new Pipeline(2, 2, new Probe.Silent());
+            Stream<Result> results = pipeline.results(
+                new ListOf<>("\\Phi.a"),
+                new ListOf<Analysis>(new AnFaR()),
+                locator -> locator,
+                (analysis, locator) -> 1.0,
+                (analysis, locator) -> {
+                    throw new IllegalStateException("broken");
+                }
+            )) {
+            final Result res = results.findFirst().get();
+            MatcherAssert.assertThat(res.locator(), Matchers.equalTo("\\Phi.a"));
+            MatcherAssert.assertThat(
+                res.failure().get().getMessage(),
+                Matchers.equalTo("broken")
+            );
+        }
+    }
+
+    /**
+     * The result of the analysis of the object, with no errors.
+     * @param locator Locator of the object
+     * @return Results
+     */
+    private static List<Result> result(final String locator) {
+        return Collections.singletonList(
+            new Result.Completed(AnFaR.class, Collections.emptyList(), "rule", locator)
+        );
+    }
+
+}
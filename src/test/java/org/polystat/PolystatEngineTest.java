@@ -0,0 +1,148 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link PolystatEngine}.
+ *
+ * @since 1.0
+ */
+final class PolystatEngineTest {
+
+    @Test
+    void analyzesCodeInMemory(@TempDir final Path temp) throws Exception {
+        try (PolystatEngine engine = new PolystatEngine(temp);
+            Session session = engine.session(
+                Collections.singletonMap("test", "[x] > test\n  div. > @\n    42\n    x\n")
+            );
+            Stream<Result> results = session.analyze()) {
+            MatcherAssert.assertThat(
+                results.filter(res -> res.analysis().equals(AnFaR.class))
+                    .flatMap(res -> new ListOf<>(res).stream())
+                    .collect(Collectors.toList()),
+                Matchers.hasItem(Matchers.containsString("x=0"))
+            );
+        }
+    }
+
+    @Test
+    void compilesObjectsOnlyOnce(@TempDir final Path temp) throws Exception {
+        final Path src = Files.createDirectories(temp.resolve("src"));
+        Files.write(
+            src.resolve("test.eo"),
+            "[x] > test\n  div. > @\n    42\n    x\n".getBytes(StandardCharsets.UTF_8)
+        );
+        try (PolystatEngine engine = new PolystatEngine(temp.resolve("tmp"), 2);
+            Session session = engine.session(src)) {
+            final List<Result> first = PolystatEngineTest.all(session);
+            final Path xml;
+            try (Stream<Path> files = Files.walk(temp.resolve("tmp"))) {
+                xml = files.filter(path -> path.endsWith("test.xml")).findFirst().get();
+            }
+            final FileTime compiled = Files.getLastModifiedTime(xml);
+            MatcherAssert.assertThat(
+                PolystatEngineTest.all(session),
+                Matchers.hasSize(first.size())
+            );
+            MatcherAssert.assertThat(
+                Files.getLastModifiedTime(xml),
+                Matchers.equalTo(compiled)
+            );
+        }
+    }
+
+    @Test
+    void keysResultsByVersionsOfAnalyzers(@TempDir final Path temp) throws Exception {
+        try (PolystatEngine engine = new PolystatEngine(temp)) {
+            MatcherAssert.assertThat(
+                engine.version(),
+                Matchers.allOf(
+                    Matchers.containsString("polystat="),
+                    Matchers.containsString("odin="),
+                    Matchers.containsString("far="),
+                    Matchers.containsString(AnOdin.class.getName())
+                )
+            );
+        }
+    }
+
+    @Test
+    void analyzesOnlyChangedObjectsAgain(@TempDir final Path temp) throws Exception {
+        final Path src = Files.createDirectories(temp.resolve("src"));
+        final Path code = src.resolve("test.eo");
+        Files.write(
+            code,
+            "[x] > test\n  div. > @\n    42\n    x\n".getBytes(StandardCharsets.UTF_8)
+        );
+        final Path dir = temp.resolve("cache");
+        try (PolystatEngine engine = new PolystatEngine(temp.resolve("tmp"))) {
+            final List<Result> first;
+            try (Session session = engine.session(src, dir)) {
+                first = PolystatEngineTest.all(session);
+            }
+            try (Session session = engine.session(src, dir)) {
+                MatcherAssert.assertThat(
+                    PolystatEngineTest.all(session).get(0).started(),
+                    Matchers.equalTo(first.get(0).started())
+                );
+            }
+            Files.write(
+            code,
+            "[y] > test\n  div. > @\n    42\n    y\n".getBytes(StandardCharsets.UTF_8)
+        );
+            try (Session session = engine.session(src, dir)) {
+                MatcherAssert.assertThat(
+                    PolystatEngineTest.all(session).get(0).started(),
+                    Matchers.not(Matchers.equalTo(first.get(0).started()))
+                );
+            }
+        }
+    }
+
+    /**
+     * Analyze all objects of the session.
+     * @param session The session
+     * @return All results
+     */
+    private static List<Result> all(final Session session) {
+        try (Stream<Result> results = session.analyze()) {
+            return results.collect(Collectors.toList());
+        }
+    }
+
+}
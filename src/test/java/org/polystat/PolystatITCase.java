@@ -98,6 +98,31 @@ final class PolystatITCase {
         );
     }
 
+    @Test
+    void analyzesEveryObjectInFiles(
+        @TempDir final Path sources,
+        @TempDir final Path temp
+    ) throws Exception {
+        for (final String name : Arrays.asList("test", "other")) {
+            Files.write(
+                sources.resolve(String.format("%s.eo", name)),
+                String.format("[x] > %s\n  div. > @\n    42\n    x\n", name)
+                    .getBytes(StandardCharsets.UTF_8)
+            );
+        }
+        MatcherAssert.assertThat(
+            PolystatITCase.exec(
+                "--ndjson",
+                "--files", sources.toAbsolutePath().toString(),
+                "--tmp", temp.toAbsolutePath().toString()
+            ),
+            Matchers.allOf(
+                Matchers.containsString("\"locator\":\"\\\\Phi.test\""),
+                Matchers.containsString("\"locator\":\"\\\\Phi.other\"")
+            )
+        );
+    }
+
     /**
      * Execute Polystat.
      * @param cmds Command line args.
@@ -0,0 +1,59 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link Probe}.
+ *
+ * @since 1.0
+ */
+final class ProbeTest {
+
+    @Test
+    void passesPhasesToAllProbes(@TempDir final Path tmp) throws Exception {
+        final Metrics first = new Metrics();
+        final Metrics second = new Metrics();
+        new Probe.Joined(first, new Probe.Silent(), second)
+            .start("transform", "test")
+            .with("xmirBytes", 1L)
+            .close();
+        for (final Metrics metrics : new Metrics[] {first, second}) {
+            final Path file = Files.createTempFile(tmp, "metrics", ".json");
+            metrics.save(file);
+            MatcherAssert.assertThat(
+                new String(Files.readAllBytes(file), StandardCharsets.UTF_8),
+                Matchers.containsString("\"phase\":\"transform\"")
+            );
+        }
+    }
+
+}
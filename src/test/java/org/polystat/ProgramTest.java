@@ -24,8 +24,12 @@
 package org.polystat;
 
 import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.cactoos.Text;
 import org.cactoos.io.ResourceOf;
 import org.cactoos.io.TeeInput;
@@ -62,6 +66,40 @@ final class ProgramTest {
         this.assertOutput(temp, temp);
     }
 
+    @Test
+    void slimsXmirAndKeepsFullOne(@TempDir final Path temp) throws Exception {
+        this.writeSources(temp);
+        new Program(new Sources.Dir(temp), temp, new Probe.Silent(), true)
+            .apply("\\Phi.test.fv");
+        MatcherAssert.assertThat(
+            new XMLDocument(temp.resolve("test.xml")).nodes("/program/*[name()!='objects']"),
+            Matchers.empty()
+        );
+        MatcherAssert.assertThat(
+            new XMLDocument(temp.resolve("test.full.xml")).nodes("/program/listing"),
+            Matchers.hasSize(1)
+        );
+    }
+
+    @Test
+    void leavesNoXmirWhenCompilationFails(@TempDir final Path temp) throws Exception {
+        this.writeSources(temp);
+        Files.createDirectory(temp.resolve("test.full.xml"));
+        Assertions.assertThrows(
+            Exception.class,
+            () -> new Program(new Sources.Dir(temp), temp, new Probe.Silent(), true)
+                .apply("\\Phi.test")
+        );
+        try (Stream<Path> files = Files.list(temp)) {
+            MatcherAssert.assertThat(
+                files.filter(Files::isRegularFile)
+                    .map(file -> file.getFileName().toString())
+                    .collect(Collectors.toList()),
+                Matchers.containsInAnyOrder("test.eo", "five.eo")
+            );
+        }
+    }
+
     /**
      * Write to file.
      * @param data Data.
@@ -0,0 +1,81 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.util.Map;
+import org.cactoos.list.ListOf;
+import org.cactoos.map.MapEntry;
+import org.cactoos.map.MapOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link Shard}.
+ *
+ * @since 1.0
+ */
+final class ShardTest {
+
+    /**
+     * Costs of objects.
+     */
+    private static final Map<String, Double> COSTS = new MapOf<String, Double>(
+        new MapEntry<>("a", 7.0),
+        new MapEntry<>("b", 5.0),
+        new MapEntry<>("c", 4.0),
+        new MapEntry<>("d", 3.0),
+        new MapEntry<>("e", 1.0)
+    );
+
+    @Test
+    void balancesByCost() throws Exception {
+        MatcherAssert.assertThat(
+            new Shard("1/2").select(
+                new ListOf<>("e", "d", "c", "b", "a"), ShardTest.COSTS::get
+            ),
+            Matchers.contains("d", "a")
+        );
+        MatcherAssert.assertThat(
+            new Shard("2/2").select(
+                new ListOf<>("a", "b", "c", "d", "e"), ShardTest.COSTS::get
+            ),
+            Matchers.contains("b", "c", "e")
+        );
+    }
+
+    @Test
+    void rejectsWrongSpec() {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new Shard("3/2")
+        );
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new Shard("first")
+        );
+    }
+
+}
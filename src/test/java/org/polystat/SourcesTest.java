@@ -0,0 +1,159 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.cactoos.text.TextOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link Sources}.
+ *
+ * @since 1.0
+ */
+final class SourcesTest {
+
+    @Test
+    void findsFilesInSubdirectories(@TempDir final Path dir) throws Exception {
+        Files.createDirectories(dir.resolve("a/b"));
+        Files.write(dir.resolve("a/b/test.eo"), "[] > test".getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve("five.eo"), new byte[0]);
+        Files.write(dir.resolve("five.xml"), new byte[0]);
+        final Sources src = new Sources.Dir(dir);
+        MatcherAssert.assertThat(src.names(), Matchers.contains("five", "test"));
+        MatcherAssert.assertThat(
+            new TextOf(src.input("test")).asString(),
+            Matchers.equalTo("[] > test")
+        );
+    }
+
+    @Test
+    void readsZipFileWithoutUnpacking(@TempDir final Path dir) throws Exception {
+        final Path zip = dir.resolve("sources.jar");
+        Files.write(zip, SourcesTest.zip("EO-SOURCES/org/test.eo", "[] > test"));
+        try (Sources src = new Sources.Archive(zip)) {
+            MatcherAssert.assertThat(src.size("test"), Matchers.equalTo(9L));
+            MatcherAssert.assertThat(
+                new TextOf(src.input("test")).asString(),
+                Matchers.equalTo("[] > test")
+            );
+        }
+    }
+
+    @Test
+    void readsZipStream() throws Exception {
+        final Sources src = new Sources.Zip(
+            new ByteArrayInputStream(SourcesTest.zip("src/five.eo", "5 > five"))
+        );
+        MatcherAssert.assertThat(src.names(), Matchers.contains("five"));
+        MatcherAssert.assertThat(
+            new TextOf(src.input("five")).asString(),
+            Matchers.equalTo("5 > five")
+        );
+    }
+
+    @Test
+    void readsTarStream() throws Exception {
+        final ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        SourcesTest.entry(tar, "src/", '5', "");
+        SourcesTest.entry(tar, "src/test.eo", '0', "[x] > test\n  x > @\n");
+        SourcesTest.entry(tar, "README.md", '0', "# hello");
+        tar.write(new byte[1024]);
+        final Sources src = new Sources.Tar(new ByteArrayInputStream(tar.toByteArray()));
+        MatcherAssert.assertThat(src.names(), Matchers.contains("test"));
+        MatcherAssert.assertThat(
+            new TextOf(src.input("test")).asString(),
+            Matchers.equalTo("[x] > test\n  x > @\n")
+        );
+    }
+
+    @Test
+    void readsPaxPathsInTarStream() throws Exception {
+        final String path = String.format(
+            "src/%s/long.eo", String.join("/", Collections.nCopies(30, "deep"))
+        );
+        final String record = String.format(" path=%s\n", path);
+        final ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        SourcesTest.entry(
+            tar, "PaxHeaders/long.eo", 'x',
+            String.format("%d%s", record.length() + 3, record)
+        );
+        SourcesTest.entry(tar, "truncated.eo", '0', "[] > long\n");
+        tar.write(new byte[1024]);
+        final Sources src = new Sources.Tar(new ByteArrayInputStream(tar.toByteArray()));
+        MatcherAssert.assertThat(src.names(), Matchers.contains("long"));
+    }
+
+    /**
+     * ZIP with one file.
+     * @param name Name of the file
+     * @param content Its content
+     * @return Bytes of ZIP
+     * @throws Exception If fails
+     */
+    private static byte[] zip(final String name, final String content) throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry(name));
+            zip.write(content.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Write one TAR entry.
+     * @param out Output
+     * @param name Name of the entry
+     * @param type Its type
+     * @param content Its content
+     * @throws Exception If fails
+     */
+    private static void entry(final OutputStream out, final String name,
+        final char type, final String content) throws Exception {
+        final byte[] data = content.getBytes(StandardCharsets.UTF_8);
+        final byte[] header = new byte[512];
+        final byte[] path = name.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(path, 0, header, 0, path.length);
+        final byte[] size = String.format("%011o", data.length)
+            .getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(size, 0, header, 124, size.length);
+        header[156] = (byte) type;
+        out.write(header);
+        out.write(data);
+        out.write(new byte[(512 - data.length % 512) % 512]);
+    }
+
+}
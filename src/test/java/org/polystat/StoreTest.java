@@ -0,0 +1,133 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.cactoos.iterable.Mapped;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link Store}.
+ *
+ * @since 1.0
+ */
+final class StoreTest {
+
+    @Test
+    void iteratesSpilledResultsInOrder(@TempDir final Path tmp) throws Exception {
+        try (Store store = new Store(tmp.resolve("results.bin"), 1)) {
+            store.add(
+                new Result.Completed(AnFaR.class, new ListOf<>("a", "b"), "R1", "\\Phi.x")
+            ).add(
+                new Result.Failed(AnOdin.class, new IllegalStateException("c"), "R2")
+            ).add(
+                new Result.Completed(AnFaR.class, new ListOf<>("a"), "R3", "\\Phi.y")
+            ).add(
+                new Result.Completed(AnOdin.class, new ListOf<>("d"), "R4", "\\Phi.z")
+            );
+            MatcherAssert.assertThat(
+                new ListOf<>(new Mapped<>(Result::ruleId, store)),
+                Matchers.contains("R1", "R2", "R3", "R4")
+            );
+            MatcherAssert.assertThat(
+                new ListOf<>(store.iterator().next()),
+                Matchers.contains("a", "b")
+            );
+        }
+    }
+
+    @Test
+    void spillsResultsWithoutMessages(@TempDir final Path tmp) throws Exception {
+        final Path file = tmp.resolve("clean.bin");
+        try (Store store = new Store(file, 10)) {
+            long before = 0L;
+            for (int idx = 0; idx < 100; ++idx) {
+                store.add(
+                    new Result.Completed(
+                        AnOdin.class, new ListOf<>(), String.format("R%d", idx)
+                    )
+                );
+                if (idx % 20 == 19) {
+                    store.iterator();
+                    MatcherAssert.assertThat(
+                        Files.size(file),
+                        Matchers.greaterThan(before)
+                    );
+                    before = Files.size(file);
+                }
+            }
+            final List<String> rules = new ListOf<>(new Mapped<>(Result::ruleId, store));
+            MatcherAssert.assertThat(rules, Matchers.hasSize(100));
+            MatcherAssert.assertThat(rules.get(0), Matchers.equalTo("R0"));
+            MatcherAssert.assertThat(rules.get(99), Matchers.equalTo("R99"));
+        }
+    }
+
+    @Test
+    void spillsFailuresWithMessages(@TempDir final Path tmp) throws Exception {
+        try (Store store = new Store(tmp.resolve("failures.bin"), 0)) {
+            for (int idx = 0; idx < 3; ++idx) {
+                store.add(
+                    new Result.Failed(
+                        AnOdin.class, new IllegalStateException(String.format("e%d", idx)),
+                        "R", "\\Phi.x"
+                    )
+                );
+            }
+            MatcherAssert.assertThat(
+                new ListOf<>(new Mapped<>(res -> res.failure().get().getMessage(), store)),
+                Matchers.contains("e0", "e1", "e2")
+            );
+            MatcherAssert.assertThat(
+                store.iterator().next().locator(),
+                Matchers.equalTo("\\Phi.x")
+            );
+        }
+    }
+
+    @Test
+    void readsRepeatedMessagesBack(@TempDir final Path tmp) throws Exception {
+        final String msg = "\\perp at {a=0, b=\\any}";
+        try (Store store = new Store(tmp.resolve("repeated.bin"), 0)) {
+            for (int idx = 0; idx < 10; ++idx) {
+                store.add(
+                    new Result.Completed(AnFaR.class, new ListOf<>(msg, msg), "DIV0")
+                );
+            }
+            for (final Result res : store) {
+                MatcherAssert.assertThat(
+                    new ListOf<>(res),
+                    Matchers.contains(msg, msg)
+                );
+            }
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import com.jcabi.xml.XMLDocument;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.cactoos.io.OutputTo;
+import org.cactoos.io.ResourceOf;
+import org.eolang.parser.Spy;
+import org.eolang.parser.Syntax;
+import org.eolang.parser.Xsline;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link Stylesheets}.
+ *
+ * @since 1.0
+ */
+final class StylesheetsTest {
+
+    @Test
+    void transformsLikeXsline(@TempDir final Path temp) throws Exception {
+        final Path raw = temp.resolve("raw.xml");
+        new Syntax(
+            "test", new ResourceOf("org/polystat/test.eo"), new OutputTo(raw)
+        ).parse();
+        final Path expected = temp.resolve("expected.xml");
+        new Xsline(
+            new XMLDocument(raw), new OutputTo(expected), new Spy.None()
+        ).pass();
+        final Path actual = temp.resolve("actual.xml");
+        new Stylesheets().pass(new XMLDocument(raw), new OutputTo(actual));
+        MatcherAssert.assertThat(
+            new String(Files.readAllBytes(actual)),
+            Matchers.equalTo(new String(Files.readAllBytes(expected)))
+        );
+    }
+
+}
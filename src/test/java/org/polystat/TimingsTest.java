@@ -0,0 +1,76 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link Timings}.
+ *
+ * @since 1.0
+ */
+final class TimingsTest {
+
+    @Test
+    void remembersTimingsBetweenRuns(@TempDir final Path temp) throws Exception {
+        final Path file = temp.resolve("timings.tsv");
+        final Timings before = new Timings(file);
+        before.record(AnFaR.class, "\\Phi.test", Duration.ofMillis(120L), 40.0);
+        before.save();
+        MatcherAssert.assertThat(
+            new Timings(file).millis(AnFaR.class, "\\Phi.test").getAsDouble(),
+            Matchers.closeTo(120.0, 0.1)
+        );
+    }
+
+    @Test
+    void estimatesMillisPerUnit(@TempDir final Path temp) {
+        final Timings timings = new Timings(temp.resolve("absent.tsv"));
+        timings.record(AnOdin.class, "\\Phi.a", Duration.ofMillis(30L), 10.0);
+        timings.record(AnOdin.class, "\\Phi.b", Duration.ofMillis(10L), 10.0);
+        MatcherAssert.assertThat(
+            timings.ratio(AnOdin.class),
+            Matchers.closeTo(2.0, 0.01)
+        );
+    }
+
+    @Test
+    void knowsNothingWithoutFile(@TempDir final Path temp) {
+        final Timings timings = new Timings(temp.resolve("absent.tsv"));
+        MatcherAssert.assertThat(
+            timings.millis(AnFaR.class, "\\Phi.test").isPresent(),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            timings.ratio(AnFaR.class),
+            Matchers.closeTo(1.0, 0.01)
+        );
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.json.Json;
+import javax.json.JsonArray;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link Trace}.
+ *
+ * @since 1.0
+ */
+final class TraceTest {
+
+    @Test
+    void writesCompleteEvents(@TempDir final Path tmp) throws Exception {
+        final Path file = tmp.resolve("trace.json");
+        try (Trace trace = new Trace(file)) {
+            try (Probe.Span outer = trace.start("analysis/AnFaR", "\\Phi.test")) {
+                trace.start("parse", "test").with("sourceBytes", 42L).close();
+                outer.with("results", 1);
+            }
+        }
+        final JsonArray events = Json.createReader(
+            new StringReader(
+                new String(Files.readAllBytes(file), StandardCharsets.UTF_8)
+            )
+        ).readArray();
+        MatcherAssert.assertThat(events, Matchers.hasSize(3));
+        MatcherAssert.assertThat(
+            events.getJsonObject(0).getJsonObject("args").getInt("sourceBytes"),
+            Matchers.equalTo(42)
+        );
+        MatcherAssert.assertThat(
+            events.getJsonObject(1).getString("name"),
+            Matchers.equalTo("analysis/AnFaR")
+        );
+    }
+
+    @Test
+    void writesEmptyArrayWithoutEvents(@TempDir final Path tmp) throws Exception {
+        final Path file = tmp.resolve("empty.json");
+        new Trace(file).close();
+        MatcherAssert.assertThat(
+            Json.createReader(
+                new StringReader(
+                    new String(Files.readAllBytes(file), StandardCharsets.UTF_8)
+                )
+            ).readArray(),
+            Matchers.empty()
+        );
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link View}.
+ *
+ * @since 1.0
+ */
+final class ViewTest {
+
+    @Test
+    void findsRelativeToNode(@TempDir final Path temp) throws Exception {
+        final View obj = ViewTest.objects(temp).child("o", "b");
+        MatcherAssert.assertThat(
+            obj.xpath("o[@name='@']/@base"),
+            Matchers.contains("a")
+        );
+        MatcherAssert.assertThat(
+            obj.xpath("count(.//o)"),
+            Matchers.contains("2")
+        );
+        MatcherAssert.assertThat(
+            obj.nodes("o").get(1).xpath("@name"),
+            Matchers.contains("x")
+        );
+    }
+
+    @Test
+    void copiesOnlyTheNode(@TempDir final Path temp) throws Exception {
+        final View obj = ViewTest.objects(temp).child("o", "a");
+        MatcherAssert.assertThat(
+            obj.toString(),
+            Matchers.equalTo("<o name=\"a\"> </o>")
+        );
+        MatcherAssert.assertThat(
+            obj.node().getFirstChild().getAttributes()
+                .getNamedItem("name").getNodeValue(),
+            Matchers.equalTo("a")
+        );
+    }
+
+    @Test
+    void refusesElementsInXpath(@TempDir final Path temp) throws Exception {
+        final View objects = ViewTest.objects(temp);
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> objects.xpath("o")
+        );
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> objects.child("o", "c")
+        );
+    }
+
+    /**
+     * Objects of a small program.
+     * @param temp Temp dir
+     * @return The objects
+     * @throws Exception If fails
+     */
+    private static View objects(final Path temp) throws Exception {
+        final Path xml = temp.resolve("test.xml");
+        Files.write(
+            xml,
+            String.join(
+                "",
+                "<program><objects><o name=\"a\"> </o>",
+                "<o name=\"b\"><o base=\"a\" name=\"@\"/><o name=\"x\"/></o>",
+                "</objects></program>"
+            ).getBytes(StandardCharsets.UTF_8)
+        );
+        return new View(View.parse(xml)).child("program").child("objects");
+    }
+
+}
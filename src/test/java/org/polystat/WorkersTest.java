@@ -0,0 +1,165 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import com.jcabi.xml.XML;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import org.cactoos.Func;
+import org.cactoos.iterable.Mapped;
+import org.cactoos.text.TextOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link Workers}.
+ *
+ * @since 1.0
+ */
+final class WorkersTest {
+
+    @Test
+    void analyzesInChildJvm(@TempDir final Path temp) throws Exception {
+        final Program program = WorkersTest.compiled(temp);
+        try (Workers workers = new Workers(temp, 1, "256m", 10, Duration.ofMinutes(1L))) {
+            MatcherAssert.assertThat(
+                new Mapped<>(Result::ruleId, workers.run(AnFaR.class, "\\Phi.test")),
+                Matchers.contains(
+                    new Mapped<>(
+                        Result::ruleId,
+                        new AnFaR().errors(program, "\\Phi.test")
+                    ).iterator().next()
+                )
+            );
+        }
+    }
+
+    @Test
+    void survivesCrashOfWorker(@TempDir final Path temp) throws Exception {
+        WorkersTest.compiled(temp);
+        try (Workers workers = new Workers(temp, 1, "256m", 10, Duration.ofMinutes(1L))) {
+            MatcherAssert.assertThat(
+                Assertions.assertThrows(
+                    IOException.class,
+                    () -> workers.run(WorkersTest.Crash.class, "\\Phi.test")
+                ).getMessage(),
+                Matchers.containsString("exit code 3")
+            );
+            MatcherAssert.assertThat(
+                workers.run(WorkersTest.Crash.class, "\\Phi.five").iterator().next()
+                    .locator(),
+                Matchers.equalTo("\\Phi.five")
+            );
+        }
+    }
+
+    @Test
+    void killsWorkerAfterDeadline(@TempDir final Path temp) throws Exception {
+        WorkersTest.compiled(temp);
+        try (Workers workers = new Workers(temp, 1, "256m", 10, Duration.ofSeconds(2L))) {
+            MatcherAssert.assertThat(
+                Assertions.assertThrows(
+                    IOException.class,
+                    () -> workers.run(WorkersTest.Hang.class, "\\Phi.test")
+                ).getMessage(),
+                Matchers.containsString("took longer than")
+            );
+            MatcherAssert.assertThat(
+                workers.run(WorkersTest.Hang.class, "\\Phi.five").iterator().next()
+                    .locator(),
+                Matchers.equalTo("\\Phi.five")
+            );
+        }
+    }
+
+    /**
+     * Compile the test sources.
+     * @param temp Directory for sources and XMIR
+     * @return The program
+     * @throws Exception If fails
+     */
+    private static Program compiled(final Path temp) throws Exception {
+        for (final String name : new String[] {"test", "five"}) {
+            Files.write(
+                temp.resolve(String.format("%s.eo", name)),
+                new TextOf(
+                    WorkersTest.class.getResourceAsStream(String.format("%s.eo", name))
+                ).asString().getBytes()
+            );
+        }
+        final Program program = new Program(temp, temp);
+        program.apply("\\Phi.test");
+        program.apply("\\Phi.five");
+        return program;
+    }
+
+    /**
+     * Analysis, which kills its JVM on "test" and finds nothing elsewhere.
+     *
+     * @since 1.0
+     */
+    public static final class Crash implements Analysis {
+
+        @Override
+        public Iterable<Result> errors(final Func<String, XML> xmir,
+            final String locator) {
+            if (locator.endsWith(".test")) {
+                Runtime.getRuntime().halt(3);
+            }
+            return Collections.singletonList(
+                new Result.Completed(
+                    WorkersTest.Crash.class, Collections.emptyList(), "crash", locator
+                )
+            );
+        }
+    }
+
+    /**
+     * Analysis, which never ends on "test" and finds nothing elsewhere.
+     *
+     * @since 1.0
+     */
+    public static final class Hang implements Analysis {
+
+        @Override
+        public Iterable<Result> errors(final Func<String, XML> xmir,
+            final String locator) throws InterruptedException {
+            if (locator.endsWith(".test")) {
+                new CountDownLatch(1).await();
+            }
+            return Collections.singletonList(
+                new Result.Completed(
+                    WorkersTest.Hang.class, Collections.emptyList(), "hang", locator
+                )
+            );
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020-2022 Polystat.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.polystat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link Workspace}.
+ *
+ * @since 1.0
+ */
+final class WorkspaceTest {
+
+    @Test
+    void deletesLeastRecentlyUsedFiles(@TempDir final Path temp) throws Exception {
+        final String time = "2022-01-01T00:00:00Z";
+        final Path old = WorkspaceTest.file(temp.resolve("a/old.xml"), time);
+        final Path used = WorkspaceTest.file(temp.resolve("a/used.xml"), time);
+        final Path fresh = WorkspaceTest.file(
+            temp.resolve("b/journal.bin"), "2022-02-01T00:00:00Z"
+        );
+        Workspace.touch(used);
+        MatcherAssert.assertThat(
+            new Workspace(temp, 2_000L).prune(),
+            Matchers.equalTo(1)
+        );
+        MatcherAssert.assertThat(Files.exists(old), Matchers.is(false));
+        MatcherAssert.assertThat(Files.exists(used), Matchers.is(true));
+        MatcherAssert.assertThat(Files.exists(fresh), Matchers.is(true));
+    }
+
+    @Test
+    void keepsOtherFiles(@TempDir final Path temp) throws Exception {
+        final Path dir = temp.resolve("stdin");
+        WorkspaceTest.file(dir.resolve("test.xml"), "2022-01-01T00:00:00Z");
+        final Path other = WorkspaceTest.file(
+            temp.resolve("notes.txt"), "2022-01-01T00:00:00Z"
+        );
+        new Workspace(dir, 0L).clear();
+        MatcherAssert.assertThat(Files.exists(dir), Matchers.is(false));
+        new Workspace(temp, 0L).prune();
+        MatcherAssert.assertThat(Files.exists(other), Matchers.is(true));
+    }
+
+    @Test
+    void keepsFilesOfUser(@TempDir final Path temp) throws Exception {
+        WorkspaceTest.file(temp.resolve("old.xml"), "2022-01-01T00:00:00Z");
+        final Path pom = temp.resolve("pom.xml");
+        Files.write(pom, "<project/>".getBytes(StandardCharsets.UTF_8));
+        final Path deep = temp.resolve("a/b/test.xml");
+        Files.createDirectories(deep.getParent());
+        Files.write(deep, "<program/>".getBytes(StandardCharsets.UTF_8));
+        final Path unmarked = temp.resolve("c/timings.tsv");
+        Files.createDirectories(unmarked.getParent());
+        Files.write(unmarked, new byte[1]);
+        MatcherAssert.assertThat(new Workspace(temp, 0L).prune(), Matchers.equalTo(1));
+        MatcherAssert.assertThat(Files.exists(pom), Matchers.is(true));
+        MatcherAssert.assertThat(Files.exists(deep), Matchers.is(true));
+        MatcherAssert.assertThat(Files.exists(unmarked), Matchers.is(true));
+    }
+
+    @Test
+    void skipsDirectoriesOfRuns(@TempDir final Path temp) throws Exception {
+        final String time = "2022-01-01T00:00:00Z";
+        final Path busy = WorkspaceTest.file(temp.resolve("a/results1.bin"), time);
+        final Path idle = WorkspaceTest.file(temp.resolve("b/test.xml"), time);
+        try (Workspace.Lock lock = Workspace.lock(busy.getParent(), false).get()) {
+            MatcherAssert.assertThat(
+                Workspace.lock(lock.path(), false).isPresent(),
+                Matchers.is(false)
+            );
+            new Workspace(temp, 0L).prune();
+            MatcherAssert.assertThat(Files.exists(busy), Matchers.is(true));
+            MatcherAssert.assertThat(Files.exists(idle), Matchers.is(false));
+        }
+        try (Workspace.Lock lock = Workspace.lock(busy.getParent(), false).get()) {
+            MatcherAssert.assertThat(lock.path(), Matchers.equalTo(busy.getParent()));
+        }
+    }
+
+    @Test
+    void keepsSourcesApart(@TempDir final Path temp) {
+        final Workspace workspace = new Workspace(temp, "1g");
+        MatcherAssert.assertThat(
+            workspace.of(Paths.get("a/src")),
+            Matchers.equalTo(workspace.of(Paths.get("a/../a/src")))
+        );
+        MatcherAssert.assertThat(
+            workspace.of(Paths.get("a/src")),
+            Matchers.not(Matchers.equalTo(workspace.of(Paths.get("b/src"))))
+        );
+    }
+
+    @Test
+    void showsStats(@TempDir final Path temp) throws Exception {
+        WorkspaceTest.file(temp.resolve("test.xml"), "2022-01-01T00:00:00Z");
+        MatcherAssert.assertThat(
+            new Workspace(temp, "512m").stats(),
+            Matchers.allOf(
+                Matchers.containsString("1000 B of 512.0 MB"),
+                Matchers.containsString("XMIR: 1 files")
+            )
+        );
+    }
+
+    @Test
+    void parsesSizes() {
+        MatcherAssert.assertThat(Workspace.bytes("512m"), Matchers.equalTo(512L << 20));
+        MatcherAssert.assertThat(Workspace.bytes("2G"), Matchers.equalTo(2L << 30));
+        MatcherAssert.assertThat(Workspace.bytes("100000"), Matchers.equalTo(100_000L));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Workspace.bytes("lots"));
+    }
+
+    /**
+     * Make a file of 1000 bytes, like XMIR, in a marked directory,
+     * last used at the time.
+     * @param path The file
+     * @param time When it was used
+     * @return The file
+     * @throws Exception If fails
+     */
+    private static Path file(final Path path, final String time) throws Exception {
+        Workspace.mark(path.getParent());
+        final byte[] bytes = new byte[1000];
+        final byte[] head = "<program/>".getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(head, 0, bytes, 0, head.length);
+        Files.write(path, bytes);
+        final FileTime used = FileTime.from(Instant.parse(time));
+        Files.getFileAttributeView(path, BasicFileAttributeView.class)
+            .setTimes(used, used, null);
+        return path;
+    }
+
+}